@@ -0,0 +1,342 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A {@code BackgroundExceptionCapture} exposes exceptions that are thrown
+ * by threads and executor tasks that are started by a statement. This is
+ * useful for writing tests for concurrent code according to the AAA
+ * (Arrange-Act-Assert) pattern without sleeps and shared flags.
+ * <pre>
+ * &#064;Test
+ * public void anExceptionIsThrownInTheBackground() {
+ *   BackgroundExceptionCapture capture = new BackgroundExceptionCapture();
+ *   ExecutorService executor = capture.monitor(newFixedThreadPool(2));
+ *   Throwable exception = capture.exceptionThrownBy(
+ *       () -&gt; new Importer(executor).importFile(brokenFile), 5, SECONDS);
+ *   assertEquals(ParseException.class, exception.getClass());
+ * }
+ * </pre>
+ * <p>The capture collects
+ * <ul>
+ *     <li>the exception that is thrown by the statement itself,</li>
+ *     <li>uncaught exceptions of threads that have been started after the
+ *     capture began, while the statement and its background work are
+ *     running, and</li>
+ *     <li>exceptions of tasks of executors that are
+ *     {@link #monitor(ExecutorService) monitored} by the capture,
+ *     regardless of whether they are submitted by {@code execute} or
+ *     {@code submit}.</li>
+ * </ul>
+ * <p>The background work is finished when all tasks of the monitored
+ * executors are finished and all non-daemon threads that have been started
+ * by the statement (except for the threads of the monitored executors) have
+ * terminated. Terminating threads send no notification. Therefore the
+ * capture polls the live threads every 10 milliseconds while threads that
+ * have been started by the statement are running.
+ * <p>Uncaught exceptions are captured by temporarily replacing the
+ * {@link Thread#setDefaultUncaughtExceptionHandler(Thread.UncaughtExceptionHandler)
+ * default uncaught exception handler}. Therefore exceptions of threads
+ * with their own handler are not captured and captures must not be used
+ * concurrently.
+ */
+public class BackgroundExceptionCapture {
+    private static final long MAX_WAIT_FOR_THREADS_MILLIS = 10;
+
+    private final Object monitor = new Object();
+    private final List<Throwable> exceptions = new ArrayList<Throwable>();
+    private final Set<Thread> executorThreads
+        = Collections.synchronizedSet(new HashSet<Thread>());
+    private int pendingTasks = 0;
+
+    /**
+     * Returns an executor that executes tasks by the given executor and
+     * whose tasks are monitored by this capture. If the given executor is a
+     * {@link ThreadPoolExecutor} then its thread factory is replaced by a
+     * factory that delegates to the original one and registers the created
+     * threads with this capture. Thus threads that replace workers which
+     * died because of a failing task are not mistaken for background work.
+     * @param executor the executor that executes the tasks.
+     * @return the monitored executor.
+     */
+    public ExecutorService monitor(ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor)
+            registerCreatedThreads((ThreadPoolExecutor) executor);
+        return new MonitoredExecutor(executor);
+    }
+
+    private void registerCreatedThreads(ThreadPoolExecutor executor) {
+        final ThreadFactory factory = executor.getThreadFactory();
+        executor.setThreadFactory(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = factory.newThread(runnable);
+                if (thread != null)
+                    executorThreads.add(thread);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Executes the provided statement and returns the first exception that
+     * is thrown by the statement or its background work. It returns as
+     * soon as an exception is thrown.
+     *
+     * @param statement an arbitrary piece of code.
+     * @param timeout the maximum time to wait for the background work.
+     * @param unit the time unit of the {@code timeout} argument.
+     * @return the first exception thrown by the statement or its
+     * background work.
+     * @throws ExceptionNotThrownFailure if the statement and its
+     * background work completed without an exception.
+     * @throws BackgroundWorkNotCompletedFailure if the background work did
+     * not complete in time and did not throw an exception.
+     * @see #exceptionsThrownBy(Statement, long, TimeUnit)
+     */
+    public Throwable exceptionThrownBy(
+            Statement statement, long timeout, TimeUnit unit) {
+        List<Throwable> exceptions = capture(statement, timeout, unit, true);
+        if (exceptions.isEmpty())
+            throw new ExceptionNotThrownFailure("Neither the Statement nor"
+                + " its background work threw an exception.");
+        return exceptions.get(0);
+    }
+
+    /**
+     * Executes the provided statement, waits for its background work and
+     * returns all exceptions that have been thrown in the order of their
+     * occurrence.
+     *
+     * @param statement an arbitrary piece of code.
+     * @param timeout the maximum time to wait for the background work.
+     * @param unit the time unit of the {@code timeout} argument.
+     * @return the exceptions thrown by the statement and its background
+     * work. The list is empty if no exception has been thrown.
+     * @throws BackgroundWorkNotCompletedFailure if the background work did
+     * not complete in time and did not throw an exception.
+     * @see #exceptionThrownBy(Statement, long, TimeUnit)
+     */
+    public List<Throwable> exceptionsThrownBy(
+            Statement statement, long timeout, TimeUnit unit) {
+        return capture(statement, timeout, unit, false);
+    }
+
+    private List<Throwable> capture(
+            Statement statement, long timeout, TimeUnit unit,
+            boolean stopAtFirstException) {
+        synchronized (monitor) {
+            exceptions.clear();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        final Set<Thread> threadsBefore = liveThreads();
+        Thread.UncaughtExceptionHandler previousHandler
+            = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler(
+            new Thread.UncaughtExceptionHandler() {
+                @Override
+                public void uncaughtException(Thread thread, Throwable e) {
+                    // Failures of monitored tasks are already recorded.
+                    // Threads that existed before do not belong to the
+                    // statement, e.g. threads of an earlier capture.
+                    if (!executorThreads.contains(thread)
+                            && !threadsBefore.contains(thread))
+                        record(e);
+                }
+            });
+        try {
+            try {
+                statement.evaluate();
+            } catch (Throwable e) {
+                record(e);
+            }
+            boolean completed = awaitBackgroundWork(
+                threadsBefore, deadline, stopAtFirstException);
+            synchronized (monitor) {
+                if (!completed && exceptions.isEmpty())
+                    throw new BackgroundWorkNotCompletedFailure(timeout, unit);
+                return unmodifiableList(new ArrayList<Throwable>(exceptions));
+            }
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previousHandler);
+        }
+    }
+
+    private boolean awaitBackgroundWork(
+            Set<Thread> threadsBefore, long deadline,
+            boolean stopAtFirstException) {
+        try {
+            synchronized (monitor) {
+                while (true) {
+                    if (stopAtFirstException && !exceptions.isEmpty())
+                        return true;
+                    long remainingNanos = deadline - System.nanoTime();
+                    boolean threadsRunning
+                        = !newThreads(threadsBefore).isEmpty();
+                    if (pendingTasks == 0 && !threadsRunning)
+                        return true;
+                    if (remainingNanos <= 0)
+                        return false;
+                    long waitMillis = Math.max(1,
+                        NANOSECONDS.toMillis(remainingNanos));
+                    // Terminating threads do not notify the monitor.
+                    if (threadsRunning)
+                        waitMillis = Math.min(waitMillis,
+                            MAX_WAIT_FOR_THREADS_MILLIS);
+                    monitor.wait(waitMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            throw Fishbowl.wrap(e);
+        }
+    }
+
+    private Set<Thread> newThreads(Set<Thread> threadsBefore) {
+        Set<Thread> threads = new HashSet<Thread>();
+        for (Thread thread: liveThreads())
+            if (!thread.isDaemon())
+                threads.add(thread);
+        threads.removeAll(threadsBefore);
+        threads.removeAll(executorThreads);
+        threads.remove(Thread.currentThread());
+        return threads;
+    }
+
+    private static Set<Thread> liveThreads() {
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null)
+            root = root.getParent();
+        Thread[] threads = new Thread[root.activeCount() + 1];
+        int numberOfThreads;
+        while ((numberOfThreads = root.enumerate(threads, true))
+                == threads.length)
+            threads = new Thread[2 * threads.length];
+        Set<Thread> liveThreads = new HashSet<Thread>();
+        for (int i = 0; i < numberOfThreads; ++i)
+            if (threads[i].isAlive())
+                liveThreads.add(threads[i]);
+        return liveThreads;
+    }
+
+    private void record(Throwable exception) {
+        synchronized (monitor) {
+            exceptions.add(exception);
+            monitor.notifyAll();
+        }
+    }
+
+    private void taskSubmitted() {
+        synchronized (monitor) {
+            ++pendingTasks;
+        }
+    }
+
+    private void taskFinished() {
+        synchronized (monitor) {
+            --pendingTasks;
+            monitor.notifyAll();
+        }
+    }
+
+    private class MonitoredExecutor extends AbstractExecutorService {
+        private final ExecutorService executor;
+
+        MonitoredExecutor(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            taskSubmitted();
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        executorThreads.add(Thread.currentThread());
+                        try {
+                            command.run();
+                        } catch (RuntimeException e) {
+                            record(e);
+                            throw e;
+                        } catch (Error e) {
+                            record(e);
+                            throw e;
+                        } finally {
+                            taskFinished();
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                taskFinished();
+                throw e;
+            }
+        }
+
+        @Override
+        protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+            return new RecordingFutureTask<T>(runnable, value);
+        }
+
+        @Override
+        protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+            return new RecordingFutureTask<T>(callable);
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+
+    private class RecordingFutureTask<T> extends FutureTask<T> {
+        RecordingFutureTask(Runnable runnable, T value) {
+            super(runnable, value);
+        }
+
+        RecordingFutureTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        protected void setException(Throwable exception) {
+            record(exception);
+            super.setException(exception);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This exception is thrown by {@link BackgroundExceptionCapture} if the
+ * background work of a statement did not complete within the timeout and
+ * did not throw an exception. It extends {@link java.lang.AssertionError}
+ * in order to trigger a test failure.
+ */
+public class BackgroundWorkNotCompletedFailure extends AssertionError {
+    /**
+     * Creates a new {@code BackgroundWorkNotCompletedFailure}.
+     * @param timeout the time that has been waited for the background work.
+     * @param unit the time unit of the {@code timeout} argument.
+     */
+    public BackgroundWorkNotCompletedFailure(long timeout, TimeUnit unit) {
+        super("The background work did not complete within " + timeout + " "
+            + unit.toString().toLowerCase() + ".");
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@code Bulkhead} limits the number of statements that are executed
+ * concurrently. It works like a semaphore without blocking: statements
+ * that exceed the limit are rejected immediately.
+ * <pre>
+ *   Bulkhead bulkhead = new Bulkhead(10);
+ *   ...
+ *   Price price = bulkhead.evaluateOrDefault(() -&gt; fetchPrice(), NO_PRICE);
+ * </pre>
+ */
+public class Bulkhead extends Guard {
+    private final int maxConcurrentExecutions;
+    private final AtomicInteger concurrentExecutions = new AtomicInteger();
+
+    /**
+     * Creates a new {@code Bulkhead}.
+     * @param maxConcurrentExecutions the maximum number of statements that
+     *                                are executed concurrently.
+     * @throws IllegalArgumentException if {@code maxConcurrentExecutions}
+     * is not positive.
+     */
+    public Bulkhead(int maxConcurrentExecutions) {
+        if (maxConcurrentExecutions <= 0)
+            throw new IllegalArgumentException(
+                "The maximum number of concurrent executions must be positive.");
+        this.maxConcurrentExecutions = maxConcurrentExecutions;
+    }
+
+    /**
+     * Returns the number of statements that are currently executed.
+     * @return the number of statements that are currently executed.
+     */
+    public int getConcurrentExecutions() {
+        return concurrentExecutions.get();
+    }
+
+    @Override
+    protected boolean tryAcquire() {
+        while (true) {
+            int executions = concurrentExecutions.get();
+            if (executions >= maxConcurrentExecutions)
+                return false;
+            if (concurrentExecutions.compareAndSet(executions, executions + 1))
+                return true;
+        }
+    }
+
+    @Override
+    protected void release() {
+        concurrentExecutions.decrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead[maxConcurrentExecutions=" + maxConcurrentExecutions
+            + "]";
+    }
+}
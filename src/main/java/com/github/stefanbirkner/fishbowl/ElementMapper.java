@@ -0,0 +1,157 @@
+package com.github.stefanbirkner.fishbowl;
+
+/**
+ * An {@code ElementMapper} maps each element of a stream with a
+ * {@link StatementWithArgument} and handles exceptions per element. Thus a
+ * single bad element does not terminate the whole stream. There are three
+ * options for dealing with exceptions.
+ * <ul>
+ *     <li>Wrap checked exceptions just as they are wrapped by
+ *     {@link Fishbowl#wrapCheckedException(StatementWithReturnValue)}:
+ *     {@link #wrappingCheckedException(StatementWithArgument)}</li>
+ *     <li>Emit a default value instead of the element just as
+ *     {@link Fishbowl#defaultIfException(StatementWithReturnValue, Class, Object)}
+ *     does: {@link #defaultingIfException(StatementWithArgument, Class, Object)}</li>
+ *     <li>Drop the element just as
+ *     {@link Fishbowl#ignoreException(Statement, Class)} ignores an
+ *     exception: {@link #ignoringException(StatementWithArgument, Class)}</li>
+ * </ul>
+ * <p>The mapper is designed for the {@code onNext} method of a reactive
+ * processor, e.g. a {@code java.util.concurrent.Flow.Processor}. Mapping
+ * an element allocates no objects unless an exception is thrown. A
+ * dropped element is not emitted. The processor has to request another
+ * element from upstream instead in order to keep the demand of its
+ * subscriber. A {@link ReplenishingDemand} requests these elements in
+ * batches.
+ * <pre>
+ *   public void onNext(String item) {
+ *     demand.received(mapper.map(item, downstream));
+ *   }
+ * </pre>
+ * <p>On Java 9 and later the {@code ExceptionHandlingProcessor} is a
+ * complete {@code Flow.Processor} that uses an {@code ElementMapper} and a
+ * {@code ReplenishingDemand}.
+ *
+ * @param <T> type of the elements that are mapped.
+ * @param <R> type of the mapped elements.
+ */
+public class ElementMapper<T, R> {
+    private final StatementWithArgument<? super T, ? extends R> function;
+    private final Class<? extends Throwable> handledType;
+    private final boolean dropElement;
+    private final R defaultValue;
+
+    private ElementMapper(
+            StatementWithArgument<? super T, ? extends R> function,
+            Class<? extends Throwable> handledType, boolean dropElement,
+            R defaultValue) {
+        this.function = function;
+        this.handledType = handledType;
+        this.dropElement = dropElement;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Creates an {@code ElementMapper} that wraps checked exceptions with
+     * an unchecked {@link WrappedException}. RuntimeExceptions and Errors
+     * are rethrown.
+     *
+     * @param function the function that maps each element.
+     * @param <T> type of the elements that are mapped.
+     * @param <R> type of the mapped elements.
+     * @return the new {@code ElementMapper}.
+     */
+    public static <T, R> ElementMapper<T, R> wrappingCheckedException(
+            StatementWithArgument<? super T, ? extends R> function) {
+        return new ElementMapper<T, R>(function, null, false, null);
+    }
+
+    /**
+     * Creates an {@code ElementMapper} that emits the default value if the
+     * function throws an exception of the specified type. Other exceptions
+     * are handled like they are handled by
+     * {@link #wrappingCheckedException(StatementWithArgument)}.
+     *
+     * @param function the function that maps each element.
+     * @param exceptionType the type of exception for which the default
+     *                      value is emitted.
+     * @param defaultValue this value is emitted if the function throws an
+     *                     exception of the specified type.
+     * @param <T> type of the elements that are mapped.
+     * @param <R> type of the mapped elements.
+     * @return the new {@code ElementMapper}.
+     */
+    public static <T, R> ElementMapper<T, R> defaultingIfException(
+            StatementWithArgument<? super T, ? extends R> function,
+            Class<? extends Throwable> exceptionType, R defaultValue) {
+        return new ElementMapper<T, R>(
+            function, exceptionType, false, defaultValue);
+    }
+
+    /**
+     * Creates an {@code ElementMapper} that drops the element if the
+     * function throws an exception of the specified type. Other exceptions
+     * are handled like they are handled by
+     * {@link #wrappingCheckedException(StatementWithArgument)}.
+     *
+     * @param function the function that maps each element.
+     * @param exceptionType the type of exception for which the element is
+     *                      dropped.
+     * @param <T> type of the elements that are mapped.
+     * @param <R> type of the mapped elements.
+     * @return the new {@code ElementMapper}.
+     */
+    public static <T, R> ElementMapper<T, R> ignoringException(
+            StatementWithArgument<? super T, ? extends R> function,
+            Class<? extends Throwable> exceptionType) {
+        return new ElementMapper<T, R>(function, exceptionType, true, null);
+    }
+
+    /**
+     * Maps the given element and passes the mapped element to the
+     * receiver.
+     *
+     * @param element the element that is mapped.
+     * @param receiver the receiver of the mapped element.
+     * @return {@code true} if an element has been passed to the receiver
+     * and {@code false} if the element has been dropped.
+     * @throws WrappedException if the function throws a checked exception
+     * that is not handled. The {@code WrappedException}'s cause is the
+     * checked exception.
+     */
+    public boolean map(T element, ElementReceiver<? super R> receiver) {
+        R mappedElement;
+        try {
+            mappedElement = function.evaluate(element);
+        } catch (RuntimeException e) {
+            if (isHandled(e))
+                return handle(e, receiver);
+            else
+                throw e;
+        } catch (Error e) {
+            if (isHandled(e))
+                return handle(e, receiver);
+            else
+                throw e;
+        } catch (Throwable e) {
+            if (isHandled(e))
+                return handle(e, receiver);
+            else
+                throw Fishbowl.wrap(e);
+        }
+        receiver.receive(mappedElement);
+        return true;
+    }
+
+    private boolean isHandled(Throwable e) {
+        return handledType != null && handledType.isAssignableFrom(e.getClass());
+    }
+
+    private boolean handle(Throwable e, ElementReceiver<? super R> receiver) {
+        Fishbowl.ignored(e);
+        if (dropElement)
+            return false;
+        receiver.receive(defaultValue);
+        return true;
+    }
+}
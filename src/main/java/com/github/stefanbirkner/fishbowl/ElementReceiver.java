@@ -0,0 +1,15 @@
+package com.github.stefanbirkner.fishbowl;
+
+/**
+ * Receives the elements that are emitted by an {@link ElementMapper}.
+ *
+ * @param <E> type of the elements.
+ */
+public interface ElementReceiver<E> {
+    /**
+     * Receives an element.
+     *
+     * @param element the element.
+     */
+    void receive(E element);
+}
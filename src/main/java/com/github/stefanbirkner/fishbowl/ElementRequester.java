@@ -0,0 +1,14 @@
+package com.github.stefanbirkner.fishbowl;
+
+/**
+ * Requests elements from an upstream publisher, e.g. by delegating to
+ * {@code java.util.concurrent.Flow.Subscription#request(long)}.
+ */
+public interface ElementRequester {
+    /**
+     * Requests additional elements.
+     *
+     * @param n the number of additional elements. Must be positive.
+     */
+    void request(long n);
+}
@@ -12,6 +12,15 @@ public class ExceptionNotThrownFailure extends AssertionError {
      * Creates a new {@code ExceptionNotThrownFailure}.
      */
     public ExceptionNotThrownFailure() {
-        super("The Statement did not throw an exception.");
+        this("The Statement did not throw an exception.");
+    }
+
+    /**
+     * Creates a new {@code ExceptionNotThrownFailure} with the specified
+     * message.
+     * @param message the detail message.
+     */
+    public ExceptionNotThrownFailure(String message) {
+        super(message);
     }
 }
@@ -0,0 +1,157 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * An {@code ExceptionTranslation} translates checked exceptions to
+ * unchecked exceptions of specific types. It is used by
+ * {@link Fishbowl#wrapCheckedException(Statement, ExceptionTranslation)}
+ * and {@link Fishbowl#wrapCheckedException(StatementWithReturnValue, ExceptionTranslation)}
+ * instead of enclosing every checked exception with a
+ * {@link WrappedException}.
+ * <pre>
+ *   private static final ExceptionTranslation TRANSLATION = new ExceptionTranslation()
+ *     .translating(SQLException.class, DataAccessException.class)
+ *     .translating(IOException.class, TransientFailure.class);
+ *
+ *   public void doSomething() {
+ *     wrapCheckedException(() -&gt; repository.store(something), TRANSLATION);
+ *   }
+ * </pre>
+ * <p>A checked exception is translated according to the registration of
+ * its class or its closest superclass. Checked exceptions without a
+ * registration are enclosed with a {@code WrappedException}.
+ * <p>The unchecked type must have a public constructor that accepts the
+ * checked exception as its only argument (e.g.
+ * {@code DataAccessException(SQLException cause)} or
+ * {@code DataAccessException(Throwable cause)}) or a public constructor
+ * with a message and a cause ({@code (String, Throwable)}). The
+ * constructor is resolved once when it is registered. Translating an
+ * exception costs a map lookup for each of its superclasses and a
+ * constructor call. Only the registered types are kept by an
+ * {@code ExceptionTranslation}. Thus it does not prevent the classes of
+ * thrown exceptions and their class loaders from being unloaded.
+ */
+public class ExceptionTranslation {
+    private static final Translator NO_TRANSLATOR = new Translator(null, false);
+
+    private final Map<Class<?>, Translator> registeredTranslators;
+
+    /**
+     * Creates an {@code ExceptionTranslation} without any registration.
+     * It encloses every checked exception with a {@code WrappedException}.
+     */
+    public ExceptionTranslation() {
+        this(new LinkedHashMap<Class<?>, Translator>());
+    }
+
+    private ExceptionTranslation(Map<Class<?>, Translator> registeredTranslators) {
+        this.registeredTranslators = unmodifiableMap(registeredTranslators);
+    }
+
+    /**
+     * Returns a new {@code ExceptionTranslation} that additionally
+     * translates exceptions of the checked type to exceptions of the
+     * unchecked type.
+     * @param checkedType the type of exceptions that are translated.
+     * @param uncheckedType the type of exceptions that are thrown instead.
+     * @param <E> the type of exceptions that are translated.
+     * @return a new {@code ExceptionTranslation}.
+     * @throws IllegalArgumentException if {@code uncheckedType} has no
+     * suitable constructor.
+     */
+    public <E extends Throwable> ExceptionTranslation translating(
+            Class<E> checkedType,
+            Class<? extends RuntimeException> uncheckedType) {
+        Map<Class<?>, Translator> translators
+            = new LinkedHashMap<Class<?>, Translator>(registeredTranslators);
+        translators.put(checkedType, translator(checkedType, uncheckedType));
+        return new ExceptionTranslation(translators);
+    }
+
+    /**
+     * Translates the given checked exception to an unchecked exception.
+     * The thread's interrupt status is restored if the exception is an
+     * {@link InterruptedException}.
+     * @param exception the checked exception.
+     * @return the unchecked exception that encloses the checked exception.
+     */
+    public RuntimeException translate(Throwable exception) {
+        Translator translator
+            = registeredTranslatorOfClosestSuperclass(exception.getClass());
+        if (translator == NO_TRANSLATOR)
+            return Fishbowl.wrap(exception);
+        if (exception instanceof InterruptedException)
+            Thread.currentThread().interrupt();
+        return translator.translate(exception);
+    }
+
+    private Translator registeredTranslatorOfClosestSuperclass(
+            Class<?> thrownClass) {
+        for (Class<?> c = thrownClass; c != null; c = c.getSuperclass()) {
+            Translator translator = registeredTranslators.get(c);
+            if (translator != null)
+                return translator;
+        }
+        return NO_TRANSLATOR;
+    }
+
+    private static Translator translator(
+            Class<?> checkedType,
+            Class<? extends RuntimeException> uncheckedType) {
+        for (Constructor<?> constructor: uncheckedType.getConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length == 1
+                    && parameterTypes[0].isAssignableFrom(checkedType))
+                return new Translator(constructor, false);
+        }
+        for (Constructor<?> constructor: uncheckedType.getConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length == 2
+                    && parameterTypes[0] == String.class
+                    && parameterTypes[1].isAssignableFrom(checkedType))
+                return new Translator(constructor, true);
+        }
+        throw new IllegalArgumentException(uncheckedType.getName()
+            + " has no public constructor that accepts a "
+            + checkedType.getName() + ".");
+    }
+
+    private static class Translator {
+        final Constructor<?> constructor;
+        final boolean withMessage;
+
+        Translator(Constructor<?> constructor, boolean withMessage) {
+            this.constructor = constructor;
+            this.withMessage = withMessage;
+        }
+
+        RuntimeException translate(Throwable exception) {
+            try {
+                if (withMessage)
+                    return (RuntimeException) constructor.newInstance(
+                        exception.getMessage(), exception);
+                else
+                    return (RuntimeException) constructor.newInstance(exception);
+            } catch (InvocationTargetException e) {
+                throw cannotTranslate(exception, e.getCause());
+            } catch (InstantiationException e) {
+                throw cannotTranslate(exception, e);
+            } catch (IllegalAccessException e) {
+                throw cannotTranslate(exception, e);
+            }
+        }
+
+        private IllegalStateException cannotTranslate(
+                Throwable exception, Throwable failure) {
+            return new IllegalStateException("Cannot translate " + exception
+                + " because " + constructor + " failed with " + failure + ".",
+                exception);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.stefanbirkner.fishbowl;
+
+/**
+ * This exception is thrown by a {@link Guard} if it does not permit the
+ * execution of a statement.
+ */
+public class ExecutionRejectedException extends RuntimeException {
+    /**
+     * Creates a new {@code ExecutionRejectedException}.
+     * @param guard the guard that rejected the execution.
+     */
+    public ExecutionRejectedException(Guard guard) {
+        super("The statement has been rejected by " + guard + ".");
+    }
+}
@@ -1,5 +1,26 @@
 package com.github.stefanbirkner.fishbowl;
 
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 /**
  * {@code Fishbowl} provides helper methods for dealing with exceptions.
  * <h2>Wrap Exceptions</h2>
@@ -17,6 +38,9 @@ package com.github.stefanbirkner.fishbowl;
  * statements with a return value) can be used for the third option.
  * They replace the try-catch-throw-RuntimeException snippet that is
  * usually used.
+ * <p>Checked exceptions can be translated to specific unchecked exceptions
+ * instead of {@link WrappedException}s by providing an
+ * {@link ExceptionTranslation}.
  * <h2>Default Values</h2>
  * <p>Sometimes exceptions are best handled by returning a default
  * value. This can be done by a single line of code with
@@ -25,6 +49,35 @@ package com.github.stefanbirkner.fishbowl;
  * <p>Sometimes it is appropriate to continue if a void method fails. This can
  * be done with {@link #ignoreException(Statement)} or
  * {@link #ignoreException(Statement, Class)}.</p>
+ * <p>The most recent exceptions that have been ignored can be
+ * inspected by installing an {@link IgnoredExceptionLog}.</p>
+ * <h2>Close Resources</h2>
+ * <p>Many resources have to be closed even if closing some of them fails.
+ * {@link #closeAll(Iterable)} closes each resource and reports all failures
+ * at once. {@link #closeQuietly(Iterable)} closes each resource and ignores
+ * any failure. Resources that may block while being closed can be closed in
+ * parallel with
+ * {@link #closeAll(Iterable, Class, ExecutorService, long, TimeUnit)}.</p>
+ * <h2>Run Statements in Parallel</h2>
+ * <p>{@link #invokeAll(List, Executor)} evaluates statements in parallel and
+ * returns all their values. It stops waiting as soon as one of the
+ * statements fails and cancels the other statements. The failure is
+ * handled like it is handled by
+ * {@link #wrapCheckedException(StatementWithReturnValue)}.
+ * <h2>Interruption</h2>
+ * <p>An {@link InterruptedException} tells a thread that it should stop
+ * what it is doing. The methods {@code wrapCheckedException},
+ * {@code defaultIfException}, {@code ignoreException} and
+ * {@code closeAll} therefore restore the thread's interrupt status
+ * whenever they handle an {@code InterruptedException}. If such an
+ * exception is wrapped then it is wrapped by a
+ * {@link WrappedInterruptedException}. Thus tasks that use these methods
+ * still stop when their executor is shut down.
+ * <p>{@link #invokeAll(List, Executor)} wraps an
+ * {@code InterruptedException} of a statement by a
+ * {@code WrappedInterruptedException}, too, but it does not interrupt the
+ * calling thread because the statement has been interrupted on another
+ * thread.
  * <h2>Expose Exceptions</h2>
  * <p>Fishbowl can expose exceptions that are thrown by an arbitrary
  * piece of code. Thus you can write tests for that piece of code by
@@ -33,9 +86,17 @@ package com.github.stefanbirkner.fishbowl;
  * {@link #exceptionThrownBy(Statement)} for catching any
  * {@code Throwable} or use
  * {@link #exceptionThrownBy(Statement, Class)} for catching
- * exceptions of a specific type only.
+ * exceptions of a specific type only. Exceptions of asynchronous code
+ * are exposed by {@link #exceptionThrownBy(Future, long, TimeUnit)} and
+ * {@link #exceptionThrownBy(Future, Class, long, TimeUnit)}. Exceptions
+ * of threads that are started by a piece of code are exposed by
+ * {@link #exceptionThrownInBackgroundBy(Statement, long, TimeUnit)} and
+ * by a {@link BackgroundExceptionCapture}.
  */
 public class Fishbowl {
+    private static final String COMPLETION_EXCEPTION
+        = "java.util.concurrent.CompletionException";
+
     /**
      * Executes the given statement and returns the statement's return
      * value if no exception is thrown or the default value if an
@@ -65,20 +126,23 @@ public class Fishbowl {
         try {
             return statement.evaluate();
         } catch (RuntimeException e) {
-            if (exceptionType.isAssignableFrom(e.getClass()))
+            if (exceptionType.isAssignableFrom(e.getClass())) {
+                ignored(e);
                 return defaultValue;
-            else
+            } else
                 throw e;
         } catch (Error e) {
-            if (exceptionType.isAssignableFrom(e.getClass()))
+            if (exceptionType.isAssignableFrom(e.getClass())) {
+                ignored(e);
                 return defaultValue;
-            else
+            } else
                 throw e;
         } catch (Throwable e) {
-            if (exceptionType.isAssignableFrom(e.getClass()))
+            if (exceptionType.isAssignableFrom(e.getClass())) {
+                ignored(e);
                 return defaultValue;
-            else
-                throw new WrappedException(e);
+            } else
+                throw wrap(e);
         }
     }
 
@@ -136,14 +200,148 @@ public class Fishbowl {
         try {
             statement.evaluate();
         } catch (Throwable e) {
-            if (type.isAssignableFrom(e.getClass()))
-                return (T) e;
-            else
-                throw new ExceptionWithWrongTypeThrownFailure(type, e);
+            return exceptionOfType(e, type);
         }
         throw new ExceptionNotThrownFailure();
     }
 
+    /**
+     * Waits for the provided future and returns the exception that has
+     * been thrown by its computation. This is useful for writing tests for
+     * asynchronous code according to the AAA (Arrange-Act-Assert) pattern.
+     * The exception is not enclosed by an {@code ExecutionException} or a
+     * {@code CompletionException}.
+     * <pre>
+     * &#064;Test
+     * public void anExceptionIsThrown() {
+     *   Future&lt;?&gt; future = executor.submit(() -&gt; { throw new IOException(); });
+     *   Throwable exception = exceptionThrownBy(future, 5, SECONDS);
+     *   assertEquals(IOException.class, exception.getClass());
+     * }
+     * </pre>
+     * <p>A {@code CompletionStage} can be tested by providing
+     * {@code stage.toCompletableFuture()}.
+     *
+     * @param future the future of an arbitrary computation.
+     * @param timeout the maximum time to wait for the future.
+     * @param unit the time unit of the {@code timeout} argument.
+     * @return The exception thrown by the computation.
+     * @throws ExceptionNotThrownFailure if the computation completed
+     * without an exception.
+     * @throws FutureNotCompletedFailure if the computation did not
+     * complete in time.
+     * @see #exceptionThrownBy(Future, Class, long, TimeUnit)
+     */
+    public static Throwable exceptionThrownBy(
+            Future<?> future, long timeout, TimeUnit unit) {
+        return exceptionThrownBy(future, Throwable.class, timeout, unit);
+    }
+
+    /**
+     * Waits for the provided future and returns the exception that has
+     * been thrown by its computation if it has the specified type. The
+     * exception is not enclosed by an {@code ExecutionException} or a
+     * {@code CompletionException}. An {@code ExecutionException} without
+     * cause is returned itself.
+     * <p>Example:
+     * <pre>
+     * IllegalStateException exception = exceptionThrownBy(
+     *         supplyAsync(() -&gt; { throw new IllegalStateException("foo"); }),
+     *         IllegalStateException.class, 5, SECONDS);
+     * assertEquals("foo", exception.getMessage())
+     * </pre>
+     *
+     * @param future the future of an arbitrary computation.
+     * @param type the type of the exception that should be exposed.
+     * @param timeout the maximum time to wait for the future.
+     * @param unit the time unit of the {@code timeout} argument.
+     * @param <T> the type of the exception that should be exposed.
+     * @return The exception thrown by the computation.
+     * @throws ExceptionNotThrownFailure if the computation completed
+     * without an exception.
+     * @throws ExceptionWithWrongTypeThrownFailure if the computation
+     * threw an exception of a different type.
+     * @throws FutureNotCompletedFailure if the computation did not
+     * complete in time.
+     * @see #exceptionThrownBy(Future, long, TimeUnit)
+     */
+    public static <T extends Throwable> T exceptionThrownBy(
+            Future<?> future, Class<T> type, long timeout, TimeUnit unit) {
+        try {
+            future.get(timeout, unit);
+        } catch (ExecutionException e) {
+            return exceptionOfType(failureOf(e), type);
+        } catch (CancellationException e) {
+            return exceptionOfType(e, type);
+        } catch (TimeoutException e) {
+            throw new FutureNotCompletedFailure(timeout, unit);
+        } catch (InterruptedException e) {
+            throw wrap(e);
+        }
+        throw new ExceptionNotThrownFailure(
+            "The Future completed without an exception.");
+    }
+
+    /**
+     * Executes the provided statement and returns the first exception that
+     * is thrown by the statement or by a thread that is started by the
+     * statement. It waits at most the specified time for the started
+     * threads.
+     * <pre>
+     * &#064;Test
+     * public void anExceptionIsThrownInTheBackground() {
+     *   Throwable exception = exceptionThrownInBackgroundBy(
+     *       () -&gt; new Thread(() -&gt; { throw new IllegalStateException(); }).start(),
+     *       5, SECONDS);
+     *   assertEquals(IllegalStateException.class, exception.getClass());
+     * }
+     * </pre>
+     * <p>Use a {@link BackgroundExceptionCapture} for capturing
+     * exceptions of executor tasks, too.
+     *
+     * @param statement an arbitrary piece of code.
+     * @param timeout the maximum time to wait for the started threads.
+     * @param unit the time unit of the {@code timeout} argument.
+     * @return The first exception thrown by the statement or the started
+     * threads.
+     * @throws ExceptionNotThrownFailure if neither the statement nor the
+     * started threads threw an exception.
+     * @throws BackgroundWorkNotCompletedFailure if the started threads did
+     * not terminate in time and did not throw an exception.
+     * @see BackgroundExceptionCapture
+     */
+    public static Throwable exceptionThrownInBackgroundBy(
+            Statement statement, long timeout, TimeUnit unit) {
+        return new BackgroundExceptionCapture()
+            .exceptionThrownBy(statement, timeout, unit);
+    }
+
+    private static <T extends Throwable> T exceptionOfType(
+            Throwable e, Class<T> type) {
+        if (type.isAssignableFrom(e.getClass()))
+            return (T) e;
+        else
+            throw new ExceptionWithWrongTypeThrownFailure(type, e);
+    }
+
+    private static Throwable failureOf(ExecutionException e) {
+        if (e.getCause() == null)
+            return e;
+        else
+            return unwrapCompletionException(e.getCause());
+    }
+
+    /**
+     * Fishbowl supports Java 6. Therefore it detects a
+     * {@code java.util.concurrent.CompletionException} by its name.
+     */
+    private static Throwable unwrapCompletionException(Throwable e) {
+        while (e.getClass().getName().equals(COMPLETION_EXCEPTION)
+                && e.getCause() != null)
+            e = e.getCause();
+        return e;
+    }
+
     /**
      * Executes the given statement and encloses any checked exception
      * thrown with an unchecked {@link WrappedException}, that
@@ -179,7 +377,7 @@ public class Fishbowl {
         } catch (Error e) {
             throw e;
         } catch (Throwable e) {
-            throw new WrappedException(e);
+            throw wrap(e);
         }
     }
 
@@ -222,7 +420,67 @@ public class Fishbowl {
         } catch (Error e) {
             throw e;
         } catch (Throwable e) {
-            throw new WrappedException(e);
+            throw wrap(e);
+        }
+    }
+
+    /**
+     * Executes the given statement and translates any checked exception
+     * thrown to an unchecked exception according to the given
+     * {@link ExceptionTranslation}, that is thrown instead.
+     * <pre>
+     *   public void doSomething() {
+     *     wrapCheckedException(() -&gt; repository.store(something), TRANSLATION);
+     *   }
+     * </pre>
+     * <p>{@code RuntimeException}s and {@code Error}s are rethrown.
+     *
+     * @param statement The statement that is executed.
+     * @param translation the translation of checked exceptions.
+     * @see #wrapCheckedException(Statement)
+     */
+    public static void wrapCheckedException(
+            Statement statement, ExceptionTranslation translation) {
+        try {
+            statement.evaluate();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw translation.translate(e);
+        }
+    }
+
+    /**
+     * Executes the given statement and translates any checked exception
+     * thrown to an unchecked exception according to the given
+     * {@link ExceptionTranslation}, that is thrown instead. Returns the
+     * statement's return value if no exception is thrown.
+     * <pre>
+     *   public Something find(long id) {
+     *     return wrapCheckedException(() -&gt; repository.find(id), TRANSLATION);
+     *   }
+     * </pre>
+     * <p>{@code RuntimeException}s and {@code Error}s are rethrown.
+     *
+     * @param statement The statement that is executed.
+     * @param translation the translation of checked exceptions.
+     * @param <V> type of the value that is returned by the statement.
+     * @return the return value of the statement.
+     * @see #wrapCheckedException(StatementWithReturnValue)
+     */
+    public static <V> V wrapCheckedException(
+            StatementWithReturnValue<V> statement,
+            ExceptionTranslation translation) {
+        try {
+            return statement.evaluate();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw translation.translate(e);
         }
     }
 
@@ -246,6 +504,7 @@ public class Fishbowl {
         try {
             statement.evaluate();
         } catch (Throwable e) {
+            ignored(e);
         }
     }
 
@@ -283,16 +542,446 @@ public class Fishbowl {
         try {
             statement.evaluate();
         } catch (RuntimeException e) {
-            if (!type.isAssignableFrom(e.getClass()))
+            if (type.isAssignableFrom(e.getClass()))
+                ignored(e);
+            else
                 throw e;
         } catch (Error e) {
-            if (!type.isAssignableFrom(e.getClass()))
+            if (type.isAssignableFrom(e.getClass()))
+                ignored(e);
+            else
                 throw e;
         } catch (Throwable e) {
-            if (!type.isAssignableFrom(e.getClass()))
-                throw new WrappedException(e);
+            if (type.isAssignableFrom(e.getClass()))
+                ignored(e);
+            else
+                throw wrap(e);
+        }
+
+    }
+
+    /**
+     * Closes all the given resources even if some of them cannot be
+     * closed.
+     * <pre>
+     *   public void shutdown() {
+     *     closeAll(asList(channel, file, pool));
+     *   }
+     * </pre>
+     *
+     * @param resources the resources that are closed.
+     * @throws ResourcesNotClosedException if at least one resource could
+     * not be closed. It provides the exceptions of all resources that could
+     * not be closed.
+     * @see #closeAll(Iterable, Class)
+     * @see #closeQuietly(Iterable)
+     */
+    public static void closeAll(Iterable<? extends Closeable> resources) {
+        closeSerially(resources, null);
+    }
+
+    /**
+     * Closes all the given resources even if some of them cannot be
+     * closed. Exceptions of the specified type are ignored just as they
+     * are ignored by {@link #ignoreException(Statement, Class)}.
+     * <pre>
+     *   public void shutdown() {
+     *     closeAll(asList(channel, file, pool), ClosedChannelException.class);
+     *   }
+     * </pre>
+     *
+     * @param resources the resources that are closed.
+     * @param ignoredType the type of exception that is ignored.
+     * @throws ResourcesNotClosedException if at least one resource could
+     * not be closed because of an exception that is not of the specified
+     * {@code ignoredType}.
+     * @see #closeAll(Iterable)
+     */
+    public static void closeAll(
+            Iterable<? extends Closeable> resources,
+            Class<? extends Throwable> ignoredType) {
+        closeSerially(resources, ignoredType);
+    }
+
+    /**
+     * Closes all the given resources in parallel by using the specified
+     * executor. It waits at most the specified time for the resources
+     * being closed. The time is measured separately for each resource and
+     * starts when the executor starts closing the resource. Resources that
+     * are not closed in time are interrupted and reported by a
+     * {@link TimeoutException}.
+     * <p>A close that ignores the interruption keeps blocking a thread of
+     * the executor. If the executor does not start closing any of the
+     * remaining resources within the timeout then these resources are
+     * not closed and reported by {@code TimeoutException}s, too. Resources
+     * that are rejected by the executor are reported by a
+     * {@link java.util.concurrent.RejectedExecutionException}.
+     * <pre>
+     *   public void shutdown() {
+     *     closeAll(connections, executor, 5, SECONDS);
+     *   }
+     * </pre>
+     *
+     * @param resources the resources that are closed.
+     * @param executor the executor that closes the resources.
+     * @param timeout the maximum time to wait for each resource being
+     *                closed.
+     * @param unit the time unit of the {@code timeout} argument.
+     * @throws ResourcesNotClosedException if at least one resource could
+     * not be closed in time.
+     * @see #closeAll(Iterable, Class, ExecutorService, long, TimeUnit)
+     */
+    public static void closeAll(
+            Iterable<? extends Closeable> resources, ExecutorService executor,
+            long timeout, TimeUnit unit) {
+        closeInParallel(resources, null, executor, timeout, unit);
+    }
+
+    /**
+     * Closes all the given resources in parallel by using the specified
+     * executor. It waits at most the specified time for the resources
+     * being closed. The time is measured separately for each resource and
+     * starts when the executor starts closing the resource. Resources that
+     * are not closed in time are interrupted and reported by a
+     * {@link TimeoutException}. Resources that the executor does not start
+     * closing in time are reported the same way. Exceptions of the
+     * specified type are ignored just as they are ignored by
+     * {@link #ignoreException(Statement, Class)}.
+     *
+     * @param resources the resources that are closed.
+     * @param ignoredType the type of exception that is ignored.
+     * @param executor the executor that closes the resources.
+     * @param timeout the maximum time to wait for each resource being
+     *                closed.
+     * @param unit the time unit of the {@code timeout} argument.
+     * @throws ResourcesNotClosedException if at least one resource could
+     * not be closed in time or because of an exception that is not of the
+     * specified {@code ignoredType}.
+     * @see #closeAll(Iterable, ExecutorService, long, TimeUnit)
+     */
+    public static void closeAll(
+            Iterable<? extends Closeable> resources,
+            Class<? extends Throwable> ignoredType, ExecutorService executor,
+            long timeout, TimeUnit unit) {
+        closeInParallel(resources, ignoredType, executor, timeout, unit);
+    }
+
+    /**
+     * Closes all the given resources and suppresses any exception thrown
+     * while closing them.
+     * <pre>
+     *   public void shutdown() {
+     *     closeQuietly(asList(channel, file, pool));
+     *   }
+     * </pre>
+     *
+     * @param resources the resources that are closed.
+     * @see #closeAll(Iterable)
+     */
+    public static void closeQuietly(Iterable<? extends Closeable> resources) {
+        closeSerially(resources, Throwable.class);
+    }
+
+    /**
+     * Evaluates the given statements in parallel by using the specified
+     * executor and returns their values in the order of the statements.
+     * <pre>
+     *   public List&lt;Price&gt; fetchPrices() {
+     *     return invokeAll(
+     *       asList(() -&gt; fetchPrice("A"), () -&gt; fetchPrice("B")),
+     *       executor);
+     *   }
+     * </pre>
+     * <p>As soon as a statement throws an exception all other statements
+     * are cancelled and the exception is handled just as it is handled by
+     * {@link #wrapCheckedException(StatementWithReturnValue)}. Any executor
+     * can be used, e.g. an executor that uses virtual threads.
+     *
+     * @param statements the statements that are evaluated.
+     * @param executor the executor that evaluates the statements.
+     * @param <V> type of the values that are returned by the statements.
+     * @return the return values of the statements.
+     * @throws WrappedException if a statement throws a checked exception.
+     * The {@code WrappedException}'s cause is the checked exception.
+     * @throws WrappedInterruptedException if the current thread is
+     * interrupted while waiting for the statements.
+     * @see #invokeAll(List, Executor, Class, Object)
+     */
+    public static <V> List<V> invokeAll(
+            List<? extends StatementWithReturnValue<V>> statements,
+            Executor executor) {
+        return evaluateInParallel(statements, executor, null, null);
+    }
+
+    /**
+     * Evaluates the given statements in parallel by using the specified
+     * executor and returns their values in the order of the statements.
+     * The default value is returned for each statement that throws an
+     * exception of the specified type (like
+     * {@link #defaultIfException(StatementWithReturnValue, Class, Object)}
+     * does).
+     * <p>As soon as a statement throws an exception of another type all
+     * other statements are cancelled and the exception is handled just as
+     * it is handled by
+     * {@link #wrapCheckedException(StatementWithReturnValue)}.
+     *
+     * @param statements the statements that are evaluated.
+     * @param executor the executor that evaluates the statements.
+     * @param exceptionType the type of exception for which the default
+     *                      value is returned.
+     * @param defaultValue this value is returned for each statement that
+     *                     throws an exception of the specified type.
+     * @param <V> type of the values that are returned by the statements.
+     * @return the return values of the statements or the default value
+     * for statements that failed.
+     * @throws WrappedException if a statement throws a checked exception
+     * that is not of the specified type. The {@code WrappedException}'s
+     * cause is the checked exception.
+     * @throws WrappedInterruptedException if the current thread is
+     * interrupted while waiting for the statements.
+     * @see #invokeAll(List, Executor)
+     */
+    public static <V> List<V> invokeAll(
+            List<? extends StatementWithReturnValue<V>> statements,
+            Executor executor, Class<? extends Throwable> exceptionType,
+            V defaultValue) {
+        return evaluateInParallel(
+            statements, executor, exceptionType, defaultValue);
+    }
+
+    private static <V> List<V> evaluateInParallel(
+            List<? extends StatementWithReturnValue<V>> statements,
+            Executor executor, Class<? extends Throwable> exceptionType,
+            V defaultValue) {
+        CompletionService<V> completionService
+            = new ExecutorCompletionService<V>(executor);
+        List<Future<V>> evaluations = new ArrayList<Future<V>>();
+        try {
+            for (StatementWithReturnValue<V> statement: statements)
+                evaluations.add(completionService.submit(
+                    new Evaluation<V>(statement, exceptionType, defaultValue)));
+            for (int i = 0; i < evaluations.size(); ++i)
+                completionService.take().get();
+            List<V> values = new ArrayList<V>(evaluations.size());
+            for (Future<V> evaluation: evaluations)
+                values.add(evaluation.get());
+            return values;
+        } catch (ExecutionException e) {
+            cancelAll(evaluations);
+            Throwable failure = e.getCause().getCause();
+            if (failure instanceof RuntimeException)
+                throw (RuntimeException) failure;
+            else if (failure instanceof Error)
+                throw (Error) failure;
+            else if (failure instanceof InterruptedException)
+                // The statement has been interrupted on another thread.
+                // Hence the current thread's interrupt status is kept.
+                throw new WrappedInterruptedException(
+                    (InterruptedException) failure);
+            else
+                throw new WrappedException(failure);
+        } catch (InterruptedException e) {
+            cancelAll(evaluations);
+            throw wrap(e);
+        } catch (RuntimeException e) {
+            cancelAll(evaluations);
+            throw e;
+        }
+    }
+
+    private static void cancelAll(List<? extends Future<?>> futures) {
+        for (Future<?> future: futures)
+            future.cancel(true);
+    }
+
+    private static class Evaluation<V> implements Callable<V> {
+        private final StatementWithReturnValue<V> statement;
+        private final Class<? extends Throwable> exceptionType;
+        private final V defaultValue;
+
+        Evaluation(
+                StatementWithReturnValue<V> statement,
+                Class<? extends Throwable> exceptionType, V defaultValue) {
+            this.statement = statement;
+            this.exceptionType = exceptionType;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        public V call() throws Failure {
+            try {
+                return statement.evaluate();
+            } catch (Throwable e) {
+                if (exceptionType != null
+                        && exceptionType.isAssignableFrom(e.getClass())) {
+                    ignored(e);
+                    return defaultValue;
+                } else
+                    throw new Failure(e);
+            }
+        }
+
+        /**
+         * Transports any {@code Throwable} of the statement through the
+         * {@code Future} without mixing it up with exceptions of the
+         * executor.
+         */
+        static class Failure extends Exception {
+            Failure(Throwable cause) {
+                super(cause);
+            }
+        }
+    }
+
+    private static void closeSerially(
+            Iterable<? extends Closeable> resources,
+            Class<? extends Throwable> ignoredType) {
+        int numberOfResources = 0;
+        List<Throwable> failures = new ArrayList<Throwable>();
+        for (Closeable resource: resources) {
+            ++numberOfResources;
+            try {
+                resource.close();
+            } catch (Throwable e) {
+                addUnlessIgnored(failures, e, ignoredType);
+            }
         }
+        throwIfResourcesNotClosed(numberOfResources, failures);
+    }
+
+    private static void closeInParallel(
+            Iterable<? extends Closeable> resources,
+            Class<? extends Throwable> ignoredType, ExecutorService executor,
+            long timeout, TimeUnit unit) {
+        AtomicLong lastStartTime = new AtomicLong(System.nanoTime());
+        List<Throwable> failures = new ArrayList<Throwable>();
+        List<Closing> closings = new ArrayList<Closing>();
+        int numberOfResources = 0;
+        for (Closeable resource: resources) {
+            ++numberOfResources;
+            Closing closing = new Closing(resource, lastStartTime);
+            try {
+                executor.execute(closing);
+                closings.add(closing);
+            } catch (RejectedExecutionException e) {
+                addUnlessIgnored(failures, e, ignoredType);
+            }
+        }
+        for (Closing closing: closings) {
+            try {
+                closing.awaitClose(timeout, unit);
+            } catch (ExecutionException e) {
+                addUnlessIgnored(failures, e.getCause(), ignoredType);
+            } catch (CancellationException e) {
+                addUnlessIgnored(failures, e, ignoredType);
+            } catch (TimeoutException e) {
+                closing.cancel(true);
+                addUnlessIgnored(failures, e, ignoredType);
+            } catch (InterruptedException e) {
+                for (Future<?> remainingClosing: closings)
+                    remainingClosing.cancel(true);
+                throw wrap(e);
+            }
+        }
+        throwIfResourcesNotClosed(numberOfResources, failures);
+    }
+
+    /**
+     * Closes a single resource. The timeout for closing the resource starts
+     * when the executor starts closing it and not while the resource is
+     * waiting in the executor's queue. A close that is still waiting is
+     * abandoned if the executor did not start any close of the same call
+     * within the timeout.
+     */
+    private static class Closing extends FutureTask<Void> {
+        private static final int WAITING = 0;
+        private static final int STARTED = 1;
+        private static final int ABANDONED = 2;
+
+        private final Closeable resource;
+        private final AtomicLong lastStartTime;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final CountDownLatch started = new CountDownLatch(1);
+        private volatile long startTime;
+
+        Closing(final Closeable resource, AtomicLong lastStartTime) {
+            super(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    resource.close();
+                    return null;
+                }
+            });
+            this.resource = resource;
+            this.lastStartTime = lastStartTime;
+        }
+
+        @Override
+        public void run() {
+            if (state.compareAndSet(WAITING, STARTED)) {
+                startTime = System.nanoTime();
+                lastStartTime.set(startTime);
+                started.countDown();
+                super.run();
+            }
+        }
+
+        @Override
+        protected void done() {
+            started.countDown();
+        }
+
+        void awaitClose(long timeout, TimeUnit unit)
+                throws ExecutionException, InterruptedException,
+                TimeoutException {
+            long timeoutNanos = unit.toNanos(timeout);
+            while (!started.await(
+                    lastStartTime.get() + timeoutNanos - System.nanoTime(),
+                    NANOSECONDS))
+                if (lastStartTime.get() + timeoutNanos - System.nanoTime() <= 0
+                        && state.compareAndSet(WAITING, ABANDONED))
+                    throw new TimeoutException("The resource " + resource
+                        + " has not been closed because the executor did"
+                        + " not start closing it within " + timeout + " "
+                        + unit.name().toLowerCase() + ".");
+            try {
+                get(startTime + timeoutNanos - System.nanoTime(), NANOSECONDS);
+            } catch (TimeoutException e) {
+                throw new TimeoutException("The resource " + resource
+                    + " has not been closed within " + timeout + " "
+                    + unit.name().toLowerCase() + ".");
+            }
+        }
+    }
+
+    private static void addUnlessIgnored(
+            List<Throwable> failures, Throwable failure,
+            Class<? extends Throwable> ignoredType) {
+        if (ignoredType == null
+                || !ignoredType.isAssignableFrom(failure.getClass()))
+            failures.add(failure);
+        else
+            ignored(failure);
+    }
+
+    private static void throwIfResourcesNotClosed(
+            int numberOfResources, List<Throwable> failures) {
+        if (!failures.isEmpty())
+            throw new ResourcesNotClosedException(numberOfResources, failures);
+    }
+
+    static WrappedException wrap(Throwable e) {
+        if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+            return new WrappedInterruptedException((InterruptedException) e);
+        } else
+            return new WrappedException(e);
+    }
 
+    static void ignored(Throwable e) {
+        if (e instanceof InterruptedException)
+            Thread.currentThread().interrupt();
+        IgnoredExceptionLog.recordIfInstalled(e);
     }
 
     /**
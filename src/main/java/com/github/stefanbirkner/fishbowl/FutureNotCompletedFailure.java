@@ -0,0 +1,22 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This exception is thrown by
+ * {@link com.github.stefanbirkner.fishbowl.Fishbowl#exceptionThrownBy(java.util.concurrent.Future, long, TimeUnit)}
+ * if the provided {@link java.util.concurrent.Future} did not complete
+ * within the timeout. It extends {@link java.lang.AssertionError} in order
+ * to trigger a test failure.
+ */
+public class FutureNotCompletedFailure extends AssertionError {
+    /**
+     * Creates a new {@code FutureNotCompletedFailure}.
+     * @param timeout the time that has been waited for the future.
+     * @param unit the time unit of the {@code timeout} argument.
+     */
+    public FutureNotCompletedFailure(long timeout, TimeUnit unit) {
+        super("The Future did not complete within " + timeout + " "
+            + unit.toString().toLowerCase() + ".");
+    }
+}
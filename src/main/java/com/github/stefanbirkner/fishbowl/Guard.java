@@ -0,0 +1,124 @@
+package com.github.stefanbirkner.fishbowl;
+
+/**
+ * A {@code Guard} protects a resource from overload by executing a
+ * statement only if it gets a permit. There are three options for dealing
+ * with statements that are rejected.
+ * <ul>
+ *     <li>Throw an {@link ExecutionRejectedException}:
+ *     {@link #evaluate(Statement)} and
+ *     {@link #evaluate(StatementWithReturnValue)}</li>
+ *     <li>Return a default value:
+ *     {@link #evaluateOrDefault(StatementWithReturnValue, Object)}</li>
+ *     <li>Skip the statement: {@link #evaluateOrSkip(Statement)}</li>
+ * </ul>
+ * <p>Checked exceptions that are thrown by the statement are wrapped just
+ * as they are wrapped by
+ * {@link Fishbowl#wrapCheckedException(Statement)}.
+ * <p>Getting a permit never blocks and does not use locks. Therefore the
+ * guard itself does not become a point of contention.
+ *
+ * @see Bulkhead
+ * @see RateLimiter
+ */
+public abstract class Guard {
+    /**
+     * Executes the given statement if the guard permits it.
+     *
+     * @param statement the statement that is executed.
+     * @throws ExecutionRejectedException if the guard does not permit the
+     * execution.
+     * @throws WrappedException if the statement throws a checked exception.
+     * The {@code WrappedException}'s cause is the checked exception.
+     */
+    public void evaluate(Statement statement) {
+        if (!tryAcquire())
+            throw new ExecutionRejectedException(this);
+        try {
+            Fishbowl.wrapCheckedException(statement);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Executes the given statement and returns its value if the guard
+     * permits it.
+     *
+     * @param statement the statement that is executed.
+     * @param <V> type of the value that is returned by the statement.
+     * @return the return value of the statement.
+     * @throws ExecutionRejectedException if the guard does not permit the
+     * execution.
+     * @throws WrappedException if the statement throws a checked exception.
+     * The {@code WrappedException}'s cause is the checked exception.
+     */
+    public <V> V evaluate(StatementWithReturnValue<V> statement) {
+        if (!tryAcquire())
+            throw new ExecutionRejectedException(this);
+        try {
+            return Fishbowl.wrapCheckedException(statement);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Executes the given statement and returns its value if the guard
+     * permits it. Returns the default value otherwise.
+     * <pre>
+     *   Price price = guard.evaluateOrDefault(() -&gt; fetchPrice(), NO_PRICE);
+     * </pre>
+     *
+     * @param statement the statement that is executed.
+     * @param defaultValue this value is returned if the guard does not
+     *                     permit the execution.
+     * @param <V> type of the value that is returned by the statement.
+     * @return the return value of the statement or the default value.
+     * @throws WrappedException if the statement throws a checked exception.
+     * The {@code WrappedException}'s cause is the checked exception.
+     */
+    public <V> V evaluateOrDefault(
+            StatementWithReturnValue<V> statement, V defaultValue) {
+        if (!tryAcquire())
+            return defaultValue;
+        try {
+            return Fishbowl.wrapCheckedException(statement);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Executes the given statement if the guard permits it. Does nothing
+     * otherwise.
+     *
+     * @param statement the statement that is executed.
+     * @return {@code true} if the statement has been executed.
+     * @throws WrappedException if the statement throws a checked exception.
+     * The {@code WrappedException}'s cause is the checked exception.
+     */
+    public boolean evaluateOrSkip(Statement statement) {
+        if (!tryAcquire())
+            return false;
+        try {
+            Fishbowl.wrapCheckedException(statement);
+            return true;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Tries to get a permit for executing a statement. This method must
+     * neither block nor use locks.
+     *
+     * @return {@code true} if the statement may be executed.
+     */
+    protected abstract boolean tryAcquire();
+
+    /**
+     * Returns the permit after the statement has been executed.
+     */
+    protected abstract void release();
+}
@@ -0,0 +1,61 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * An exception that has been ignored by Fishbowl together with the time
+ * and the thread of its occurrence.
+ *
+ * @see IgnoredExceptionLog
+ */
+public class IgnoredException {
+    private final long sequenceNumber;
+    private final Throwable exception;
+    private final long timestamp;
+    private final String threadName;
+
+    IgnoredException(long sequenceNumber, Throwable exception, long timestamp,
+            String threadName) {
+        this.sequenceNumber = sequenceNumber;
+        this.exception = exception;
+        this.timestamp = timestamp;
+        this.threadName = threadName;
+    }
+
+    long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    /**
+     * Returns the exception that has been ignored.
+     * @return the exception that has been ignored.
+     */
+    public Throwable getException() {
+        return exception;
+    }
+
+    /**
+     * Returns the time when the exception has been ignored.
+     * @return the time when the exception has been ignored in milliseconds
+     * since January 1, 1970 UTC.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the name of the thread that ignored the exception.
+     * @return the name of the thread that ignored the exception.
+     */
+    public String getThreadName() {
+        return threadName;
+    }
+
+    @Override
+    public String toString() {
+        return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ")
+            .format(new Date(timestamp))
+            + " [" + threadName + "] " + exception;
+    }
+}
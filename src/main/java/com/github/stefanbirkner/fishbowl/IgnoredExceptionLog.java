@@ -0,0 +1,203 @@
+package com.github.stefanbirkner.fishbowl;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.wrapCheckedException;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * An {@code IgnoredExceptionLog} keeps the most recent exceptions that
+ * have been ignored by Fishbowl. This helps to understand what is going on
+ * in a running system without logging every exception.
+ * <pre>
+ *   IgnoredExceptionLog log = new IgnoredExceptionLog(100);
+ *   IgnoredExceptionLog.install(log);
+ *   log.registerMBean();
+ * </pre>
+ * <p>Once a log is installed it records every exception that is ignored
+ * by {@link Fishbowl#ignoreException(Statement)},
+ * {@link Fishbowl#ignoreException(Statement, Class)},
+ * {@link Fishbowl#defaultIfException(StatementWithReturnValue, Class, Object)}
+ * and the other methods of {@code Fishbowl} that ignore exceptions. Nothing
+ * is recorded if no log is installed.
+ * <p>Installing a log and registering it as an MBean are independent of
+ * each other. {@link #unregisterMBean()} removes the MBean so that another
+ * log can be registered with the same name.
+ * <p>The log is a ring buffer with a fixed capacity. Recording an exception
+ * overwrites the oldest slot without using locks. Hence the log neither
+ * slows down the threads that ignore exceptions nor grows without bounds.
+ */
+public class IgnoredExceptionLog implements IgnoredExceptionLogMBean {
+    private static final String DEFAULT_NAME
+        = "com.github.stefanbirkner.fishbowl:type=IgnoredExceptionLog";
+    private static volatile IgnoredExceptionLog installedLog;
+
+    private final AtomicReferenceArray<IgnoredException> slots;
+    private final AtomicLong numberOfRecordedExceptions = new AtomicLong();
+    private ObjectName registeredName;
+
+    /**
+     * Creates a new {@code IgnoredExceptionLog}.
+     * @param capacity the maximum number of exceptions that are kept.
+     * @throws IllegalArgumentException if {@code capacity} is not
+     * positive.
+     */
+    public IgnoredExceptionLog(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException(
+                "The capacity must be positive.");
+        this.slots = new AtomicReferenceArray<IgnoredException>(capacity);
+    }
+
+    /**
+     * Installs the given log. From now on every exception that is ignored by
+     * Fishbowl is recorded by this log. A previously installed log is
+     * replaced.
+     * @param log the log that records the ignored exceptions.
+     */
+    public static void install(IgnoredExceptionLog log) {
+        installedLog = log;
+    }
+
+    /**
+     * Uninstalls the currently installed log. From now on ignored
+     * exceptions are no longer recorded.
+     */
+    public static void uninstall() {
+        installedLog = null;
+    }
+
+    static void recordIfInstalled(Throwable exception) {
+        IgnoredExceptionLog log = installedLog;
+        if (log != null)
+            log.record(exception);
+    }
+
+    /**
+     * Records the given exception. It overwrites the oldest exception if
+     * the log is full.
+     * @param exception the exception that has been ignored.
+     */
+    public void record(Throwable exception) {
+        long sequenceNumber = numberOfRecordedExceptions.getAndIncrement();
+        slots.set(
+            (int) (sequenceNumber % slots.length()),
+            new IgnoredException(
+                sequenceNumber, exception, System.currentTimeMillis(),
+                Thread.currentThread().getName()));
+    }
+
+    /**
+     * Returns the exceptions that are kept by the log. The most recent
+     * exception comes first. Exceptions that are overwritten while this
+     * method is executed are left out.
+     * @return the exceptions that are kept by the log.
+     */
+    public List<IgnoredException> getExceptions() {
+        long last = numberOfRecordedExceptions.get() - 1;
+        long first = Math.max(0, last - slots.length() + 1);
+        List<IgnoredException> exceptions = new ArrayList<IgnoredException>();
+        for (long sequenceNumber = last; sequenceNumber >= first; --sequenceNumber) {
+            IgnoredException exception
+                = slots.get((int) (sequenceNumber % slots.length()));
+            if (exception != null
+                    && exception.getSequenceNumber() == sequenceNumber)
+                exceptions.add(exception);
+        }
+        return unmodifiableList(exceptions);
+    }
+
+    @Override
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    @Override
+    public long getNumberOfRecordedExceptions() {
+        return numberOfRecordedExceptions.get();
+    }
+
+    @Override
+    public String[] getIgnoredExceptions() {
+        List<IgnoredException> exceptions = getExceptions();
+        String[] descriptions = new String[exceptions.size()];
+        for (int i = 0; i < descriptions.length; ++i)
+            descriptions[i] = exceptions.get(i).toString();
+        return descriptions;
+    }
+
+    /**
+     * Registers this log at the platform MBean server with the name
+     * {@code com.github.stefanbirkner.fishbowl:type=IgnoredExceptionLog}.
+     * @return the name of the MBean.
+     * @throws WrappedException if the MBean cannot be registered, e.g.
+     * because another log is registered with the same name. The
+     * {@code WrappedException}'s cause is the JMX exception.
+     * @see #registerMBean(ObjectName)
+     * @see #unregisterMBean()
+     */
+    public ObjectName registerMBean() {
+        return registerMBean(wrapCheckedException(
+            new StatementWithReturnValue<ObjectName>() {
+                @Override
+                public ObjectName evaluate() throws Throwable {
+                    return new ObjectName(DEFAULT_NAME);
+                }
+            }));
+    }
+
+    /**
+     * Registers this log at the platform MBean server with the given name.
+     * Use different names for logs that are registered at the same time.
+     * <p>Registering and installing a log are independent of each other.
+     * {@link #uninstall()} does not unregister the MBean and
+     * {@link #unregisterMBean()} does not uninstall the log. A registered
+     * log that is not installed still shows the exceptions that it recorded
+     * before.
+     * @param name the name of the MBean.
+     * @return the name of the MBean.
+     * @throws WrappedException if the MBean cannot be registered. The
+     * {@code WrappedException}'s cause is the JMX exception.
+     * @throws IllegalStateException if this log is already registered.
+     */
+    public synchronized ObjectName registerMBean(final ObjectName name) {
+        if (registeredName != null)
+            throw new IllegalStateException(
+                "The log is already registered as " + registeredName + ".");
+        wrapCheckedException(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(IgnoredExceptionLog.this, name);
+            }
+        });
+        registeredName = name;
+        return name;
+    }
+
+    /**
+     * Unregisters the MBean of this log from the platform MBean server.
+     * Afterwards another log can be registered with the same name. Nothing
+     * happens if this log is not registered.
+     * @throws WrappedException if the MBean cannot be unregistered. The
+     * {@code WrappedException}'s cause is the JMX exception.
+     */
+    public synchronized void unregisterMBean() {
+        if (registeredName == null)
+            return;
+        final ObjectName name = registeredName;
+        wrapCheckedException(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                ManagementFactory.getPlatformMBeanServer()
+                    .unregisterMBean(name);
+            }
+        });
+        registeredName = null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.stefanbirkner.fishbowl;
+
+/**
+ * The JMX interface of an {@link IgnoredExceptionLog}.
+ */
+public interface IgnoredExceptionLogMBean {
+    /**
+     * Returns the maximum number of exceptions that are kept.
+     * @return the maximum number of exceptions that are kept.
+     */
+    int getCapacity();
+
+    /**
+     * Returns the number of exceptions that have been recorded since the
+     * log has been created. This includes exceptions that are no longer
+     * kept.
+     * @return the number of exceptions that have been recorded.
+     */
+    long getNumberOfRecordedExceptions();
+
+    /**
+     * Returns a description of each exception that is kept. The most
+     * recent exception comes first.
+     * @return a description of each exception that is kept.
+     */
+    String[] getIgnoredExceptions();
+}
@@ -0,0 +1,121 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@code LastKnownGood} evaluates another statement and remembers its
+ * last value. If the statement throws an exception of the specified type
+ * then the last value is returned instead. This is useful for data that
+ * is better stale than missing, e.g. remote configuration.
+ * <pre>
+ *   private final LastKnownGood&lt;Config&gt; config = new LastKnownGood&lt;Config&gt;(
+ *       () -&gt; fetchRemoteConfig(), IOException.class)
+ *     .withMaximumStaleness(1, HOURS);
+ *
+ *   public Config getConfig() {
+ *     return wrapCheckedException(config);
+ *   }
+ * </pre>
+ * <p>The exception is thrown if there is no last value yet or if the last
+ * value is older than the maximum staleness. Exceptions that are replaced
+ * by the last value are ignored just as they are ignored by
+ * {@link Fishbowl#defaultIfException(StatementWithReturnValue, Class, Object)}.
+ * <p>The last value is published by a single volatile field. Reading it
+ * costs no more than a field load.
+ *
+ * @param <V> type of the value that is returned by the statement.
+ */
+public class LastKnownGood<V> implements StatementWithReturnValue<V> {
+    private static final long UNLIMITED = -1;
+
+    private final StatementWithReturnValue<V> statement;
+    private final Class<? extends Throwable> exceptionType;
+    private final long maximumStalenessNanos;
+    private volatile Success<V> lastSuccess;
+
+    /**
+     * Creates a new {@code LastKnownGood} that returns the last value
+     * regardless of its age.
+     * @param statement the statement that is evaluated.
+     * @param exceptionType the type of exception for which the last value
+     *                      is returned.
+     */
+    public LastKnownGood(
+            StatementWithReturnValue<V> statement,
+            Class<? extends Throwable> exceptionType) {
+        this(statement, exceptionType, UNLIMITED);
+    }
+
+    private LastKnownGood(
+            StatementWithReturnValue<V> statement,
+            Class<? extends Throwable> exceptionType,
+            long maximumStalenessNanos) {
+        this.statement = statement;
+        this.exceptionType = exceptionType;
+        this.maximumStalenessNanos = maximumStalenessNanos;
+    }
+
+    /**
+     * Returns a new {@code LastKnownGood} that returns the last value only
+     * if it is not older than the specified time.
+     * @param maximumStaleness the maximum age of the last value.
+     * @param unit the time unit of the {@code maximumStaleness} argument.
+     * @return a new {@code LastKnownGood} without a last value.
+     */
+    public LastKnownGood<V> withMaximumStaleness(
+            long maximumStaleness, TimeUnit unit) {
+        return new LastKnownGood<V>(
+            statement, exceptionType, unit.toNanos(maximumStaleness));
+    }
+
+    /**
+     * Evaluates the statement and returns its value. Returns the last
+     * value if the statement throws an exception of the specified type.
+     *
+     * @return the value of the statement or the last value.
+     * @throws Throwable the exception of the statement if it has a
+     * different type or if there is no last value that is fresh enough.
+     */
+    @Override
+    public V evaluate() throws Throwable {
+        try {
+            V value = statement.evaluate();
+            lastSuccess = new Success<V>(value, System.nanoTime());
+            return value;
+        } catch (Throwable e) {
+            Success<V> success = lastSuccess;
+            if (exceptionType.isAssignableFrom(e.getClass())
+                    && isFresh(success)) {
+                Fishbowl.ignored(e);
+                return success.value;
+            } else
+                throw e;
+        }
+    }
+
+    /**
+     * Returns the last value without evaluating the statement.
+     * @return the last value or {@code null} if the statement has not
+     * returned a value yet.
+     */
+    public V getLastKnownGood() {
+        Success<V> success = lastSuccess;
+        return success == null ? null : success.value;
+    }
+
+    private boolean isFresh(Success<V> success) {
+        return success != null
+            && (maximumStalenessNanos == UNLIMITED
+                || System.nanoTime() - success.evaluatedAt <= maximumStalenessNanos);
+    }
+
+    private static class Success<V> {
+        final V value;
+        final long evaluatedAt;
+
+        Success(V value, long evaluatedAt) {
+            this.value = value;
+            this.evaluatedAt = evaluatedAt;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@code MemoizedStatement} evaluates another statement once and returns
+ * its value on subsequent evaluations. It is useful for lazily computing
+ * an expensive value.
+ * <pre>
+ *   private final MemoizedStatement&lt;Config&gt; config
+ *     = new MemoizedStatement&lt;Config&gt;(() -&gt; loadExpensiveConfig())
+ *       .expireAfter(10, MINUTES);
+ *
+ *   public Config getConfig() {
+ *     return wrapCheckedException(config);
+ *   }
+ * </pre>
+ * <p>Concurrent evaluations are coalesced: if several threads evaluate the
+ * {@code MemoizedStatement} at the same time then only one of them
+ * evaluates the underlying statement and the others wait for its
+ * outcome.
+ * <p>The value can expire after some time
+ * ({@link #expireAfter(long, TimeUnit)}). It can also be refreshed ahead
+ * of its expiry ({@link #refreshAfter(long, TimeUnit)}). In this case a
+ * single thread refreshes the value while all other threads still get
+ * the current value without waiting.
+ * <p>Exceptions are not cached by default. Every evaluation after a
+ * failure evaluates the underlying statement again. Exceptions of a
+ * specific type can be cached for a short time
+ * ({@link #cacheFailures(Class, long, TimeUnit)}) in order to protect a
+ * failing backend.
+ *
+ * @param <V> type of the value that is returned by the statement.
+ */
+public class MemoizedStatement<V> implements StatementWithReturnValue<V> {
+    private static final long NEVER = -1;
+
+    private final StatementWithReturnValue<V> statement;
+    private final long expiryNanos;
+    private final long refreshNanos;
+    private final Class<? extends Throwable> cachedFailureType;
+    private final long failureExpiryNanos;
+    private final AtomicReference<Flight<V>> currentFlight
+        = new AtomicReference<Flight<V>>();
+    private volatile Outcome<V> outcome;
+
+    /**
+     * Creates a new {@code MemoizedStatement} that caches the value of the
+     * given statement forever.
+     * @param statement the statement whose value is cached.
+     */
+    public MemoizedStatement(StatementWithReturnValue<V> statement) {
+        this(statement, NEVER, NEVER, null, NEVER);
+    }
+
+    private MemoizedStatement(
+            StatementWithReturnValue<V> statement, long expiryNanos,
+            long refreshNanos, Class<? extends Throwable> cachedFailureType,
+            long failureExpiryNanos) {
+        this.statement = statement;
+        this.expiryNanos = expiryNanos;
+        this.refreshNanos = refreshNanos;
+        this.cachedFailureType = cachedFailureType;
+        this.failureExpiryNanos = failureExpiryNanos;
+    }
+
+    /**
+     * Returns a new {@code MemoizedStatement} whose value expires after the
+     * specified time. The next evaluation after expiry evaluates the
+     * underlying statement again.
+     * @param duration the time after which the value expires.
+     * @param unit the time unit of the {@code duration} argument.
+     * @return a new {@code MemoizedStatement} with an empty cache.
+     */
+    public MemoizedStatement<V> expireAfter(long duration, TimeUnit unit) {
+        return new MemoizedStatement<V>(statement, unit.toNanos(duration),
+            refreshNanos, cachedFailureType, failureExpiryNanos);
+    }
+
+    /**
+     * Returns a new {@code MemoizedStatement} whose value is refreshed
+     * after the specified time. The first evaluation after that time
+     * evaluates the underlying statement while concurrent evaluations still
+     * return the current value. The current value is kept if the refresh
+     * fails.
+     * @param duration the time after which the value is refreshed.
+     * @param unit the time unit of the {@code duration} argument.
+     * @return a new {@code MemoizedStatement} with an empty cache.
+     */
+    public MemoizedStatement<V> refreshAfter(long duration, TimeUnit unit) {
+        return new MemoizedStatement<V>(statement, expiryNanos,
+            unit.toNanos(duration), cachedFailureType, failureExpiryNanos);
+    }
+
+    /**
+     * Returns a new {@code MemoizedStatement} that caches exceptions of the
+     * specified type for the specified time. Evaluations within this time
+     * throw the cached exception without evaluating the underlying
+     * statement.
+     * @param type the type of exceptions that are cached.
+     * @param duration the time after which a cached exception expires.
+     * @param unit the time unit of the {@code duration} argument.
+     * @return a new {@code MemoizedStatement} with an empty cache.
+     */
+    public MemoizedStatement<V> cacheFailures(
+            Class<? extends Throwable> type, long duration, TimeUnit unit) {
+        return new MemoizedStatement<V>(statement, expiryNanos, refreshNanos,
+            type, unit.toNanos(duration));
+    }
+
+    /**
+     * Discards the cached value or exception. The next evaluation
+     * evaluates the underlying statement again.
+     */
+    public void invalidate() {
+        outcome = null;
+    }
+
+    /**
+     * Returns the cached value or evaluates the underlying statement if
+     * there is no valid cached value.
+     *
+     * @return the value of the underlying statement.
+     * @throws Throwable the exception of the underlying statement.
+     */
+    @Override
+    public V evaluate() throws Throwable {
+        Outcome<V> current = outcome;
+        long now = System.nanoTime();
+        if (isValid(current, now)) {
+            if (current.failure == null && isDue(current, refreshNanos, now))
+                return refresh(current);
+            else
+                return current.get();
+        } else
+            return joinOrStartFlight().await();
+    }
+
+    private V refresh(Outcome<V> current) throws Throwable {
+        Flight<V> flight = new Flight<V>();
+        if (currentFlight.compareAndSet(null, flight)) {
+            evaluateStatement(flight, false);
+            if (flight.failure == null)
+                return flight.value;
+            IgnoredExceptionLog.recordIfInstalled(flight.failure);
+        }
+        return current.get();
+    }
+
+    private Flight<V> joinOrStartFlight() {
+        while (true) {
+            Flight<V> flight = currentFlight.get();
+            if (flight != null)
+                return flight;
+            flight = new Flight<V>();
+            if (currentFlight.compareAndSet(null, flight)) {
+                Outcome<V> current = outcome;
+                if (isValid(current, System.nanoTime())) {
+                    flight.complete(current.value, current.failure);
+                    currentFlight.set(null);
+                } else
+                    evaluateStatement(flight, true);
+                return flight;
+            }
+        }
+    }
+
+    private void evaluateStatement(Flight<V> flight, boolean mayCacheFailure) {
+        try {
+            V value = statement.evaluate();
+            outcome = new Outcome<V>(value, null, System.nanoTime());
+            flight.complete(value, null);
+        } catch (Throwable e) {
+            if (mayCacheFailure && cachedFailureType != null
+                    && cachedFailureType.isAssignableFrom(e.getClass()))
+                outcome = new Outcome<V>(null, e, System.nanoTime());
+            flight.complete(null, e);
+        } finally {
+            currentFlight.set(null);
+        }
+    }
+
+    private boolean isValid(Outcome<V> outcome, long now) {
+        if (outcome == null)
+            return false;
+        else if (outcome.failure == null)
+            return !isDue(outcome, expiryNanos, now);
+        else
+            return !isDue(outcome, failureExpiryNanos, now);
+    }
+
+    private boolean isDue(Outcome<V> outcome, long nanos, long now) {
+        return nanos != NEVER && now - outcome.evaluatedAt >= nanos;
+    }
+
+    private static class Outcome<V> {
+        final V value;
+        final Throwable failure;
+        final long evaluatedAt;
+
+        Outcome(V value, Throwable failure, long evaluatedAt) {
+            this.value = value;
+            this.failure = failure;
+            this.evaluatedAt = evaluatedAt;
+        }
+
+        V get() throws Throwable {
+            if (failure == null)
+                return value;
+            else
+                throw failure;
+        }
+    }
+
+    /**
+     * A single evaluation of the underlying statement that other threads
+     * can wait for.
+     */
+    private static class Flight<V> {
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private V value;
+        private Throwable failure;
+
+        void complete(V value, Throwable failure) {
+            this.value = value;
+            this.failure = failure;
+            completed.countDown();
+        }
+
+        V await() throws Throwable {
+            completed.await();
+            if (failure == null)
+                return value;
+            else
+                throw failure;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A {@code PeriodicTask} executes a statement periodically on a
+ * {@link ScheduledExecutorService}. Unlike
+ * {@link ScheduledExecutorService#scheduleAtFixedRate(Runnable, long, long, TimeUnit)}
+ * it keeps the schedule alive if the statement throws an exception of the
+ * tolerated type.
+ * <pre>
+ *   PeriodicTask task = new PeriodicTask(
+ *       () -&gt; refreshCache(), IOException.class, 1, MINUTES)
+ *     .withMaximumBackoff(10, MINUTES);
+ *   task.start(scheduler, workers);
+ * </pre>
+ * <ul>
+ *     <li>Tolerated exceptions are ignored just as they are ignored by
+ *     {@link Fishbowl#ignoreException(Statement, Class)}. The task stops
+ *     if the statement throws any other exception or is interrupted. The
+ *     exception is available by {@link #getLastFailure()}.</li>
+ *     <li>After consecutive failures the delay until the next execution
+ *     is doubled with each failure up to the maximum backoff
+ *     ({@link #withMaximumBackoff(long, TimeUnit)}).</li>
+ *     <li>Executions never overlap. If an execution takes longer than the
+ *     period then the missed executions are skipped.</li>
+ *     <li>The statement can be executed by a separate executor
+ *     ({@link #start(ScheduledExecutorService, Executor)}). In this case
+ *     a slow statement does not block the scheduler's thread and other
+ *     tasks that share the scheduler are executed on time.</li>
+ * </ul>
+ */
+public class PeriodicTask {
+    private static final Executor SCHEDULER_THREAD = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private final Statement statement;
+    private final Class<? extends Throwable> toleratedType;
+    private final long periodNanos;
+    private final long maximumBackoffNanos;
+    private volatile ScheduledExecutorService scheduler;
+    private volatile Executor worker;
+    private volatile Future<?> nextExecution;
+    private volatile boolean stopped = false;
+    private volatile long lastStartTime = 0;
+    private volatile long lastDurationNanos = 0;
+    private volatile int consecutiveFailures = 0;
+    private volatile long skippedExecutions = 0;
+    private volatile Throwable lastFailure;
+
+    /**
+     * Creates a new {@code PeriodicTask}.
+     * @param statement the statement that is executed periodically.
+     * @param toleratedType the type of exception that does not stop the
+     *                      task.
+     * @param period the period between successive executions.
+     * @param unit the time unit of the {@code period} argument.
+     * @throws IllegalArgumentException if {@code period} is not positive.
+     */
+    public PeriodicTask(
+            Statement statement, Class<? extends Throwable> toleratedType,
+            long period, TimeUnit unit) {
+        this(statement, toleratedType, unit.toNanos(period),
+            unit.toNanos(period));
+    }
+
+    private PeriodicTask(
+            Statement statement, Class<? extends Throwable> toleratedType,
+            long periodNanos, long maximumBackoffNanos) {
+        if (periodNanos <= 0)
+            throw new IllegalArgumentException("The period must be positive.");
+        this.statement = statement;
+        this.toleratedType = toleratedType;
+        this.periodNanos = periodNanos;
+        this.maximumBackoffNanos = Math.max(periodNanos, maximumBackoffNanos);
+    }
+
+    /**
+     * Returns a new {@code PeriodicTask} that backs off after consecutive
+     * failures. The delay until the next execution is doubled with each
+     * failure but never exceeds the specified maximum. Without maximum
+     * backoff the task does not back off.
+     * @param maximumBackoff the maximum delay after a failure.
+     * @param unit the time unit of the {@code maximumBackoff} argument.
+     * @return a new {@code PeriodicTask} that has not been started.
+     */
+    public PeriodicTask withMaximumBackoff(long maximumBackoff, TimeUnit unit) {
+        return new PeriodicTask(
+            statement, toleratedType, periodNanos, unit.toNanos(maximumBackoff));
+    }
+
+    /**
+     * Starts executing the statement on the threads of the given
+     * scheduler. The first execution starts immediately.
+     * @param scheduler the scheduler that executes the statement.
+     * @throws IllegalStateException if the task has already been started.
+     */
+    public void start(ScheduledExecutorService scheduler) {
+        start(scheduler, SCHEDULER_THREAD);
+    }
+
+    /**
+     * Starts executing the statement on the given worker. The scheduler is
+     * only used for triggering the executions. The first execution starts
+     * immediately.
+     * @param scheduler the scheduler that triggers the executions.
+     * @param worker the executor that executes the statement.
+     * @throws IllegalStateException if the task has already been started.
+     */
+    public synchronized void start(
+            ScheduledExecutorService scheduler, Executor worker) {
+        if (this.scheduler != null)
+            throw new IllegalStateException(
+                "The task has already been started.");
+        this.scheduler = scheduler;
+        this.worker = worker;
+        schedule(System.nanoTime(), 0);
+    }
+
+    /**
+     * Stops the task. An execution that is currently running is not
+     * interrupted.
+     */
+    public void stop() {
+        stopped = true;
+        Future<?> execution = nextExecution;
+        if (execution != null)
+            execution.cancel(false);
+    }
+
+    /**
+     * Returns whether the task has been stopped, either by calling
+     * {@link #stop()} or because of an exception that is not tolerated.
+     * @return {@code true} if the task has been stopped.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Returns the time when the last execution started.
+     * @return the time when the last execution started in milliseconds
+     * since January 1, 1970 UTC or 0 if the statement has not been
+     * executed yet.
+     */
+    public long getLastStartTime() {
+        return lastStartTime;
+    }
+
+    /**
+     * Returns the duration of the last completed execution.
+     * @param unit the time unit of the returned duration.
+     * @return the duration of the last completed execution.
+     */
+    public long getLastDuration(TimeUnit unit) {
+        return unit.convert(lastDurationNanos, NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of executions that failed since the last
+     * successful execution.
+     * @return the number of consecutive failures.
+     */
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * Returns the number of executions that have been skipped because the
+     * previous execution took longer than the period.
+     * @return the number of skipped executions.
+     */
+    public long getSkippedExecutions() {
+        return skippedExecutions;
+    }
+
+    /**
+     * Returns the exception that has been thrown by the last failed
+     * execution.
+     * @return the exception that has been thrown by the last failed
+     * execution or {@code null} if no execution failed.
+     */
+    public Throwable getLastFailure() {
+        return lastFailure;
+    }
+
+    private void schedule(final long plannedStart, long delayNanos) {
+        if (stopped)
+            return;
+        try {
+            nextExecution = scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    trigger(plannedStart);
+                }
+            }, delayNanos, NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            stopped = true;
+        }
+    }
+
+    private void trigger(final long plannedStart) {
+        try {
+            worker.execute(new Runnable() {
+                @Override
+                public void run() {
+                    execute(plannedStart);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            stopped = true;
+        }
+    }
+
+    private void execute(long plannedStart) {
+        if (stopped)
+            return;
+        lastStartTime = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            statement.evaluate();
+            consecutiveFailures = 0;
+        } catch (Throwable e) {
+            lastFailure = e;
+            ++consecutiveFailures;
+            if (e instanceof InterruptedException) {
+                stopped = true;
+                Thread.currentThread().interrupt();
+            } else if (toleratedType.isAssignableFrom(e.getClass()))
+                IgnoredExceptionLog.recordIfInstalled(e);
+            else
+                stopped = true;
+        } finally {
+            lastDurationNanos = System.nanoTime() - start;
+        }
+        scheduleNext(plannedStart);
+    }
+
+    private void scheduleNext(long previousPlannedStart) {
+        long now = System.nanoTime();
+        long plannedStart = previousPlannedStart + backoffNanos();
+        if (plannedStart - now < 0) {
+            long missedExecutions = (now - plannedStart) / periodNanos + 1;
+            plannedStart += missedExecutions * periodNanos;
+            skippedExecutions += missedExecutions;
+        }
+        schedule(plannedStart, plannedStart - now);
+    }
+
+    private long backoffNanos() {
+        long backoff = periodNanos;
+        for (int i = 0; i < consecutiveFailures
+                && backoff <= maximumBackoffNanos / 2; ++i)
+            backoff *= 2;
+        return Math.min(backoff, maximumBackoffNanos);
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@code RateLimiter} limits the number of statements that are executed
+ * per period. It behaves like a token bucket that holds up to
+ * {@code permits} tokens and is refilled at a rate of {@code permits} per
+ * {@code period}. Statements that exceed the rate are rejected
+ * immediately.
+ * <pre>
+ *   RateLimiter rateLimiter = new RateLimiter(100, 1, SECONDS);
+ *   ...
+ *   rateLimiter.evaluateOrSkip(() -&gt; sendMetrics());
+ * </pre>
+ * <p>The bucket is implemented by a single atomic timestamp: the time at
+ * which the bucket will be full again (generic cell rate algorithm).
+ * Getting a permit is therefore a single compare-and-set without
+ * allocations or locks.
+ */
+public class RateLimiter extends Guard {
+    private final int permits;
+    private final long period;
+    private final TimeUnit unit;
+    private final long nanosPerPermit;
+    private final long burstNanos;
+    private final AtomicLong timeWhenFull;
+
+    /**
+     * Creates a new {@code RateLimiter}.
+     * @param permits the number of statements that may be executed per
+     *                period.
+     * @param period the period.
+     * @param unit the time unit of the {@code period} argument.
+     * @throws IllegalArgumentException if {@code permits} or
+     * {@code period} is not positive.
+     */
+    public RateLimiter(int permits, long period, TimeUnit unit) {
+        if (permits <= 0)
+            throw new IllegalArgumentException(
+                "The number of permits must be positive.");
+        if (period <= 0)
+            throw new IllegalArgumentException("The period must be positive.");
+        this.permits = permits;
+        this.period = period;
+        this.unit = unit;
+        this.nanosPerPermit = Math.max(1, unit.toNanos(period) / permits);
+        this.burstNanos = nanosPerPermit * permits;
+        this.timeWhenFull = new AtomicLong(System.nanoTime());
+    }
+
+    @Override
+    protected boolean tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long currentTimeWhenFull = timeWhenFull.get();
+            long start = currentTimeWhenFull - now > 0
+                ? currentTimeWhenFull : now;
+            long newTimeWhenFull = start + nanosPerPermit;
+            if (newTimeWhenFull - now > burstNanos)
+                return false;
+            if (timeWhenFull.compareAndSet(currentTimeWhenFull, newTimeWhenFull))
+                return true;
+        }
+    }
+
+    @Override
+    protected void release() {
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimiter[permits=" + permits + ", period=" + period + " "
+            + unit + "]";
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@code ReplenishingDemand} keeps the demand of a subscriber when a
+ * processor drops elements, e.g. by using an {@link ElementMapper} that
+ * has been created by
+ * {@link ElementMapper#ignoringException(StatementWithArgument, Class)}.
+ * <p>Every dropped element has to be replaced by another element from
+ * upstream. Requesting each replacement separately causes a lot of
+ * signalling if many elements are dropped. Therefore dropped elements are
+ * counted and requested in batches. A batch is requested as soon as it is
+ * full or when all elements that have been requested from upstream have
+ * been received. Thus the stream does not stall because of a batch that
+ * is never filled.
+ * <pre>
+ *   ReplenishingDemand demand = new ReplenishingDemand(subscription::request, 32);
+ *
+ *   public void request(long n) { //called by the subscriber
+ *     demand.request(n);
+ *   }
+ *
+ *   public void onNext(String item) {
+ *     demand.received(mapper.map(item, downstream));
+ *   }
+ * </pre>
+ * <p>{@link #request(long)} may be called concurrently with
+ * {@link #received(boolean)}. {@code received} must not be called
+ * concurrently, which is guaranteed for {@code onNext} by the Reactive
+ * Streams specification. The requests to upstream are never made
+ * concurrently or reentrantly, as the specification requires for
+ * {@code Subscription.request}. A thread that finds another thread
+ * requesting hands over its request to that thread instead of waiting.
+ */
+public class ReplenishingDemand {
+    private static final long UNBOUNDED = Long.MAX_VALUE;
+    private final ElementRequester upstream;
+    private final int batchSize;
+    private final AtomicLong outstanding = new AtomicLong();
+    private final AtomicLong unrequested = new AtomicLong();
+    private final AtomicInteger requestsInProgress = new AtomicInteger();
+    private long droppedElements = 0;
+
+    /**
+     * Creates a new {@code ReplenishingDemand}.
+     * @param upstream requests elements from upstream.
+     * @param batchSize the number of dropped elements that are requested
+     *                  at once.
+     * @throws IllegalArgumentException if the batch size is not positive.
+     */
+    public ReplenishingDemand(ElementRequester upstream, int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException(
+                "The batch size must be positive but is " + batchSize + ".");
+        this.upstream = upstream;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Requests the given number of elements from upstream on behalf of
+     * the subscriber.
+     * @param n the number of elements that are requested by the
+     *          subscriber. Must be positive.
+     */
+    public void request(long n) {
+        add(outstanding, n);
+        add(unrequested, n);
+        drainRequests();
+    }
+
+    /**
+     * Notifies this demand about an element that has been received from
+     * upstream. Dropped elements are requested again.
+     * @param emitted {@code true} if the element has been emitted to the
+     *                subscriber and {@code false} if it has been dropped.
+     */
+    public void received(boolean emitted) {
+        long remaining = decrement();
+        if (!emitted && remaining != UNBOUNDED)
+            ++droppedElements;
+        if (droppedElements >= batchSize
+                || (remaining == 0 && droppedElements > 0)) {
+            long n = droppedElements;
+            droppedElements = 0;
+            request(n);
+        }
+    }
+
+    /**
+     * Returns the number of elements that have been requested from
+     * upstream but not received yet.
+     * @return the number of outstanding elements or {@link Long#MAX_VALUE}
+     * if the demand is unbounded.
+     */
+    public long getOutstandingElements() {
+        return outstanding.get();
+    }
+
+    private void drainRequests() {
+        if (requestsInProgress.getAndIncrement() != 0)
+            return;
+        int missed = 1;
+        do {
+            long n = unrequested.getAndSet(0);
+            if (n > 0)
+                upstream.request(n);
+            missed = requestsInProgress.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private static void add(AtomicLong counter, long n) {
+        long current;
+        long next;
+        do {
+            current = counter.get();
+            next = current + n < 0 ? UNBOUNDED : current + n;
+        } while (!counter.compareAndSet(current, next));
+    }
+
+    private long decrement() {
+        long current;
+        long next;
+        do {
+            current = outstanding.get();
+            if (current == UNBOUNDED || current == 0)
+                return current;
+            next = current - 1;
+        } while (!outstanding.compareAndSet(current, next));
+        return next;
+    }
+}
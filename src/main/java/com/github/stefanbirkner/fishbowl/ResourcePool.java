@@ -0,0 +1,232 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * A {@code ResourcePool} lends resources like connections or parsers to
+ * statements. A resource is returned to the pool after the statement
+ * completed unless the statement threw an exception that indicates a
+ * broken resource. Such a resource is evicted instead.
+ * <pre>
+ *   ResourcePool&lt;Connection&gt; pool = new ResourcePool&lt;Connection&gt;(
+ *       () -&gt; dataSource.getConnection(), SQLRecoverableException.class);
+ *
+ *   public Customer find(long id) {
+ *     return pool.wrapCheckedException(connection -&gt; load(connection, id));
+ *   }
+ * </pre>
+ * <p>The outcome of the statement is handled just as it is handled by
+ * {@link Fishbowl#wrapCheckedException(StatementWithReturnValue)} or
+ * {@link Fishbowl#defaultIfException(StatementWithReturnValue, Class, Object)}.
+ * A new resource is created by the factory if the pool has no idle
+ * resource. Evicted resources are closed if they are {@link Closeable}.
+ * Exceptions that are thrown while closing them are ignored.
+ * <p>The number of resources is unbounded unless a maximum is set by
+ * {@link #withMaximumSize(int)}. A statement is rejected immediately if
+ * the maximum is reached and all resources are lent.
+ * <p>The idle resources are kept in a lock-free queue and the number of
+ * resources is tracked by an atomic counter. Hence borrowing and returning
+ * resources does not become a point of contention.
+ *
+ * @param <R> type of the resources.
+ */
+public class ResourcePool<R> implements Closeable {
+    private final StatementWithReturnValue<? extends R> factory;
+    private final Class<? extends Throwable> evictionType;
+    private final int maximumSize;
+    private final Queue<R> idleResources = new ConcurrentLinkedQueue<R>();
+    private final AtomicInteger numberOfResources = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new {@code ResourcePool}.
+     * @param factory the statement that creates new resources.
+     * @param evictionType the type of exception that indicates a broken
+     *                     resource.
+     */
+    public ResourcePool(
+            StatementWithReturnValue<? extends R> factory,
+            Class<? extends Throwable> evictionType) {
+        this(factory, evictionType, Integer.MAX_VALUE);
+    }
+
+    private ResourcePool(
+            StatementWithReturnValue<? extends R> factory,
+            Class<? extends Throwable> evictionType, int maximumSize) {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException(
+                "The maximum size must be positive.");
+        this.factory = factory;
+        this.evictionType = evictionType;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns a new {@code ResourcePool} that creates at most the specified
+     * number of resources. Evicted resources do not count.
+     * @param maximumSize the maximum number of resources.
+     * @return a new {@code ResourcePool} without resources.
+     * @throws IllegalArgumentException if the maximum size is not positive.
+     */
+    public ResourcePool<R> withMaximumSize(int maximumSize) {
+        return new ResourcePool<R>(factory, evictionType, maximumSize);
+    }
+
+    /**
+     * Lends a resource to the given statement and returns the statement's
+     * return value. Any checked exception is enclosed with an unchecked
+     * {@link WrappedException} just as
+     * {@link Fishbowl#wrapCheckedException(StatementWithReturnValue)} does.
+     *
+     * @param statement the statement that uses the resource.
+     * @param <V> type of the value that is returned by the statement.
+     * @return the return value of the statement.
+     * @throws WrappedException if the statement or the factory throws a
+     * checked exception. The {@code WrappedException}'s cause is the
+     * checked exception.
+     * @throws ResourcePoolExhaustedException if all resources are lent and
+     * the maximum size is reached.
+     * @throws IllegalStateException if the pool has been closed.
+     */
+    public <V> V wrapCheckedException(
+            StatementWithArgument<? super R, V> statement) {
+        return Fishbowl.wrapCheckedException(lendingTo(statement));
+    }
+
+    /**
+     * Lends a resource to the given statement and returns the statement's
+     * return value. Returns the default value if the statement or the
+     * factory throws an exception of the specified type just as
+     * {@link Fishbowl#defaultIfException(StatementWithReturnValue, Class, Object)}
+     * does.
+     *
+     * @param statement the statement that uses the resource.
+     * @param exceptionType the type of exception for which the default
+     *                      value is returned.
+     * @param defaultValue this value is returned if the statement throws an
+     *                     exception of the specified type.
+     * @param <V> type of the value that is returned by the statement.
+     * @return the return value of the statement or the default value.
+     * @throws ResourcePoolExhaustedException if all resources are lent and
+     * the maximum size is reached unless it is of the specified type.
+     * @throws IllegalStateException if the pool has been closed.
+     */
+    public <V> V defaultIfException(
+            StatementWithArgument<? super R, V> statement,
+            Class<? extends Throwable> exceptionType, V defaultValue) {
+        return Fishbowl.defaultIfException(
+            lendingTo(statement), exceptionType, defaultValue);
+    }
+
+    /**
+     * Returns the number of resources that are currently not lent.
+     * @return the number of idle resources.
+     */
+    public int getNumberOfIdleResources() {
+        return idleResources.size();
+    }
+
+    /**
+     * Returns the number of resources that have been created and not been
+     * evicted yet.
+     * @return the number of idle and lent resources.
+     */
+    public int getNumberOfResources() {
+        return numberOfResources.get();
+    }
+
+    /**
+     * Closes all idle resources. Resources that are currently lent are
+     * closed when they are returned.
+     * @throws ResourcesNotClosedException if at least one resource could
+     * not be closed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        List<Closeable> resources = new ArrayList<Closeable>();
+        for (R resource = idleResources.poll(); resource != null;
+                resource = idleResources.poll()) {
+            numberOfResources.decrementAndGet();
+            if (resource instanceof Closeable)
+                resources.add((Closeable) resource);
+        }
+        Fishbowl.closeAll(resources);
+    }
+
+    private <V> StatementWithReturnValue<V> lendingTo(
+            final StatementWithArgument<? super R, V> statement) {
+        return new StatementWithReturnValue<V>() {
+            @Override
+            public V evaluate() throws Throwable {
+                return lend(statement);
+            }
+        };
+    }
+
+    private <V> V lend(StatementWithArgument<? super R, V> statement)
+            throws Throwable {
+        R resource = borrow();
+        V value;
+        try {
+            value = statement.evaluate(resource);
+        } catch (Throwable e) {
+            if (evictionType.isAssignableFrom(e.getClass()))
+                evict(resource);
+            else
+                giveBack(resource);
+            throw e;
+        }
+        giveBack(resource);
+        return value;
+    }
+
+    private R borrow() throws Throwable {
+        if (closed)
+            throw new IllegalStateException("The pool has been closed.");
+        R resource = idleResources.poll();
+        return resource == null ? create() : resource;
+    }
+
+    private R create() throws Throwable {
+        int current;
+        do {
+            current = numberOfResources.get();
+            if (current >= maximumSize)
+                throw new ResourcePoolExhaustedException(maximumSize);
+        } while (!numberOfResources.compareAndSet(current, current + 1));
+        try {
+            return factory.evaluate();
+        } catch (Throwable e) {
+            numberOfResources.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void giveBack(R resource) {
+        idleResources.offer(resource);
+        // close() may have drained the queue before the resource was
+        // offered.
+        if (closed)
+            evictIdleResources();
+    }
+
+    private void evictIdleResources() {
+        for (R resource = idleResources.poll(); resource != null;
+                resource = idleResources.poll())
+            evict(resource);
+    }
+
+    private void evict(R resource) {
+        numberOfResources.decrementAndGet();
+        if (resource instanceof Closeable)
+            Fishbowl.closeQuietly(singletonList((Closeable) resource));
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.stefanbirkner.fishbowl;
+
+/**
+ * This exception is thrown by a {@link ResourcePool} if all its resources
+ * are lent and it must not create another one.
+ */
+public class ResourcePoolExhaustedException extends RuntimeException {
+    /**
+     * Creates a new {@code ResourcePoolExhaustedException}.
+     * @param maximumSize the maximum number of resources of the pool.
+     */
+    public ResourcePoolExhaustedException(int maximumSize) {
+        super("All " + maximumSize + " resources of the pool are lent.");
+    }
+}
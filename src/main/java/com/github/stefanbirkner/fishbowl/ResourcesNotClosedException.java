@@ -0,0 +1,41 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * This exception is thrown by
+ * {@link com.github.stefanbirkner.fishbowl.Fishbowl#closeAll(Iterable)} and
+ * its overloaded variants if at least one resource could not be closed. It
+ * collects the exceptions of all resources that failed. The first of these
+ * exceptions is the cause of the {@code ResourcesNotClosedException}.
+ */
+public class ResourcesNotClosedException extends RuntimeException {
+    private final List<Throwable> failures;
+
+    /**
+     * Creates a new {@code ResourcesNotClosedException}.
+     * @param numberOfResources the number of resources that should have
+     *                          been closed.
+     * @param failures the exceptions that have been thrown while closing
+     *                 the resources. Must not be empty.
+     */
+    public ResourcesNotClosedException(
+            int numberOfResources, List<? extends Throwable> failures) {
+        super(failures.size() + " of " + numberOfResources
+            + " resources could not be closed.", failures.get(0));
+        this.failures = unmodifiableList(new ArrayList<Throwable>(failures));
+    }
+
+    /**
+     * Returns the exceptions that have been thrown while closing the
+     * resources.
+     * @return the exceptions that have been thrown while closing the
+     * resources.
+     */
+    public List<Throwable> getFailures() {
+        return failures;
+    }
+}
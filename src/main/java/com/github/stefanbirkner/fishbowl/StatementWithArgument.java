@@ -0,0 +1,20 @@
+package com.github.stefanbirkner.fishbowl;
+
+/**
+ * Code that computes a value from an argument. This code may throw a
+ * {@code Throwable}.
+ *
+ * @param <A> type of the argument.
+ * @param <V> type of the value that is returned by the statement.
+ */
+public interface StatementWithArgument<A, V> {
+    /**
+     * Computes a value from the argument, or throws an exception if unable
+     * to do so.
+     *
+     * @param argument the argument of the computation.
+     * @return computed value
+     * @throws Throwable an exception if it cannot compute the value
+     */
+    V evaluate(A argument) throws Throwable;
+}
@@ -0,0 +1,14 @@
+package com.github.stefanbirkner.fishbowl;
+
+/**
+ * Wraps an {@link InterruptedException}. It is thrown instead of a plain
+ * {@link WrappedException} if a statement has been interrupted. Thus code
+ * that has been cancelled can be distinguished from code that failed. The
+ * interrupt status of the thread is restored before this exception is
+ * thrown.
+ */
+public class WrappedInterruptedException extends WrappedException {
+    public WrappedInterruptedException(InterruptedException cause) {
+        super(cause);
+    }
+}
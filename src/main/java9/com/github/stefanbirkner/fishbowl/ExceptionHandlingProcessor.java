@@ -0,0 +1,163 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.util.concurrent.Flow;
+
+/**
+ * A {@code Flow.Processor} that maps each element with an
+ * {@link ElementMapper}. Thus exceptions are handled per element and a
+ * single bad element does not terminate the stream.
+ * <pre>
+ *   ExceptionHandlingProcessor&lt;String, Integer&gt; processor
+ *     = new ExceptionHandlingProcessor&lt;&gt;(
+ *         ignoringException(Integer::valueOf, NumberFormatException.class),
+ *         32);
+ *   processor.subscribe(subscriber);
+ *   publisher.subscribe(processor);
+ * </pre>
+ * <p>Mapping an element allocates no objects unless an exception is
+ * thrown. The processor forwards the demand of its subscriber to upstream.
+ * Elements that are dropped by the mapper are requested again in batches
+ * by a {@link ReplenishingDemand}. If the mapper throws an exception then
+ * the processor cancels its upstream subscription and signals the
+ * exception to its subscriber.
+ * <p>The processor has a single subscriber. An error or completion that
+ * is signalled by upstream before the subscriber subscribed is held back
+ * until it subscribes.
+ *
+ * @param <T> type of the elements that are mapped.
+ * @param <R> type of the mapped elements.
+ */
+public class ExceptionHandlingProcessor<T, R> implements Flow.Processor<T, R> {
+    private final ElementMapper<T, R> mapper;
+    private final int batchSize;
+    private volatile Flow.Subscription upstream;
+    private volatile Flow.Subscriber<? super R> downstream;
+    private volatile ReplenishingDemand demand;
+    private volatile ElementReceiver<R> receiver;
+    private volatile boolean terminated = false;
+    private Throwable pendingError;
+    private boolean pendingCompletion = false;
+
+    /**
+     * Creates a new {@code ExceptionHandlingProcessor}.
+     * @param mapper the mapper that maps each element.
+     * @param batchSize the number of dropped elements that are requested
+     *                  from upstream at once.
+     * @throws IllegalArgumentException if the batch size is not positive.
+     */
+    public ExceptionHandlingProcessor(ElementMapper<T, R> mapper, int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException(
+                "The batch size must be positive but is " + batchSize + ".");
+        this.mapper = mapper;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super R> subscriber) {
+        synchronized (this) {
+            if (downstream == null) {
+                downstream = subscriber;
+                connectIfPossible();
+                if (pendingError != null)
+                    onError(pendingError);
+                else if (pendingCompletion)
+                    onComplete();
+                return;
+            }
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        subscriber.onError(new IllegalStateException(
+            "The processor already has a subscriber."));
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (this) {
+            if (upstream == null) {
+                upstream = subscription;
+                connectIfPossible();
+                return;
+            }
+        }
+        subscription.cancel();
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (terminated)
+            return;
+        boolean emitted;
+        try {
+            emitted = mapper.map(item, receiver);
+        } catch (RuntimeException | Error e) {
+            terminated = true;
+            upstream.cancel();
+            downstream.onError(e);
+            return;
+        }
+        demand.received(emitted);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        synchronized (this) {
+            if (downstream == null) {
+                pendingError = throwable;
+                return;
+            }
+        }
+        if (!terminated) {
+            terminated = true;
+            downstream.onError(throwable);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            if (downstream == null) {
+                pendingCompletion = true;
+                return;
+            }
+        }
+        if (!terminated) {
+            terminated = true;
+            downstream.onComplete();
+        }
+    }
+
+    private void connectIfPossible() {
+        if (upstream != null && downstream != null) {
+            demand = new ReplenishingDemand(upstream::request, batchSize);
+            receiver = downstream::onNext;
+            downstream.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    if (n > 0)
+                        demand.request(n);
+                    else {
+                        upstream.cancel();
+                        onError(new IllegalArgumentException(
+                            "The number of requested elements must be"
+                                + " positive but is " + n + "."));
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    terminated = true;
+                    upstream.cancel();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.github.stefanbirkner.fishbowl;
+
+import de.bechte.junit.runners.context.HierarchicalContextRunner;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownInBackgroundBy;
+import static com.github.stefanbirkner.fishbowl.Fishbowl.ignoreException;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.rules.ExpectedException.none;
+
+@RunWith(HierarchicalContextRunner.class)
+public class BackgroundExceptionCaptureTest {
+    private static final IllegalStateException FAILURE
+        = new IllegalStateException();
+
+    @Rule
+    public final ExpectedException thrown = none();
+
+    private final BackgroundExceptionCapture capture
+        = new BackgroundExceptionCapture();
+    private final ExecutorService executor = capture.monitor(newFixedThreadPool(2));
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    public class threads {
+        @Test
+        public void exposes_the_exception_of_a_started_thread() {
+            Throwable exception = capture.exceptionThrownBy(
+                startThreadThatThrows(FAILURE), 5, SECONDS);
+            assertThat(exception, is(sameInstance((Throwable) FAILURE)));
+        }
+
+        @Test
+        public void exposes_the_exception_of_a_started_thread_by_Fishbowl() {
+            Throwable exception = exceptionThrownInBackgroundBy(
+                startThreadThatThrows(FAILURE), 5, SECONDS);
+            assertThat(exception, is(sameInstance((Throwable) FAILURE)));
+        }
+
+        @Test
+        public void exposes_the_exception_of_the_statement_itself() {
+            Throwable exception = capture.exceptionThrownBy(
+                new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        throw FAILURE;
+                    }
+                },
+                5, SECONDS);
+            assertThat(exception, is(sameInstance((Throwable) FAILURE)));
+        }
+
+        @Test
+        public void throws_an_ExceptionNotThrownFailure_if_no_thread_throws_an_exception() {
+            thrown.expect(ExceptionNotThrownFailure.class);
+            thrown.expectMessage(
+                "Neither the Statement nor its background work threw an exception.");
+            capture.exceptionThrownBy(startThread(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }), 5, SECONDS);
+        }
+
+        @Test
+        public void throws_a_BackgroundWorkNotCompletedFailure_if_a_thread_does_not_terminate_in_time() {
+            final CountDownLatch threadMayFinish = new CountDownLatch(1);
+            thrown.expect(BackgroundWorkNotCompletedFailure.class);
+            thrown.expectMessage(
+                "The background work did not complete within 50 milliseconds.");
+            try {
+                capture.exceptionThrownBy(startThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Fishbowl.ignoreException(new Statement() {
+                            @Override
+                            public void evaluate() throws Throwable {
+                                threadMayFinish.await();
+                            }
+                        });
+                    }
+                }), 50, MILLISECONDS);
+            } finally {
+                threadMayFinish.countDown();
+            }
+        }
+
+        @Test
+        public void restores_the_default_uncaught_exception_handler() {
+            Thread.UncaughtExceptionHandler handler
+                = Thread.getDefaultUncaughtExceptionHandler();
+            capture.exceptionThrownBy(
+                startThreadThatThrows(FAILURE), 5, SECONDS);
+            assertThat(Thread.getDefaultUncaughtExceptionHandler(),
+                is(sameInstance(handler)));
+        }
+    }
+
+    public class executor_tasks {
+        @Test
+        public void exposes_the_exception_of_an_executed_task() {
+            Throwable exception = capture.exceptionThrownBy(
+                new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        executor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                throw FAILURE;
+                            }
+                        });
+                    }
+                },
+                5, SECONDS);
+            assertThat(exception, is(sameInstance((Throwable) FAILURE)));
+        }
+
+        @Test
+        public void exposes_the_exception_of_an_executed_task_only_once() {
+            final BlockingQueue<Thread> workers
+                = new LinkedBlockingQueue<Thread>();
+            List<Throwable> exceptions = capture.exceptionsThrownBy(
+                new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        executor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                workers.add(Thread.currentThread());
+                                throw FAILURE;
+                            }
+                        });
+                        //the worker dies after the uncaught exception
+                        //handler has been invoked
+                        workers.take().join();
+                    }
+                },
+                5, SECONDS);
+            assertThat(exceptions, contains((Throwable) FAILURE));
+        }
+
+        @Test
+        public void exposes_the_exception_of_a_submitted_task() {
+            final IOException failure = new IOException();
+            Throwable exception = capture.exceptionThrownBy(
+                new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        executor.submit(new Callable<String>() {
+                            @Override
+                            public String call() throws Exception {
+                                throw failure;
+                            }
+                        });
+                    }
+                },
+                5, SECONDS);
+            assertThat(exception, is(sameInstance((Throwable) failure)));
+        }
+
+        @Test
+        public void exposes_all_exceptions_after_all_tasks_finished() {
+            final IOException failure = new IOException();
+            List<Throwable> exceptions = capture.exceptionsThrownBy(
+                new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        final Future<String> firstTask = executor.submit(
+                            new Callable<String>() {
+                                @Override
+                                public String call() throws Exception {
+                                    throw failure;
+                                }
+                            });
+                        executor.submit(new Callable<String>() {
+                            @Override
+                            public String call() throws Exception {
+                                //the first task's exception is recorded
+                                //before its future is done
+                                ignoreException(new Statement() {
+                                    @Override
+                                    public void evaluate() throws Throwable {
+                                        firstTask.get();
+                                    }
+                                });
+                                throw FAILURE;
+                            }
+                        });
+                    }
+                },
+                5, SECONDS);
+            assertThat(exceptions,
+                contains((Throwable) failure, (Throwable) FAILURE));
+        }
+
+        @Test
+        public void provides_no_exceptions_if_all_tasks_succeed() {
+            List<Throwable> exceptions = capture.exceptionsThrownBy(
+                new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        executor.submit(new Callable<String>() {
+                            @Override
+                            public String call() throws Exception {
+                                return "";
+                            }
+                        });
+                    }
+                },
+                5, SECONDS);
+            assertThat(exceptions, is(empty()));
+        }
+    }
+
+    private static Statement startThreadThatThrows(
+            final RuntimeException exception) {
+        return startThread(new Runnable() {
+            @Override
+            public void run() {
+                throw exception;
+            }
+        });
+    }
+
+    private static Statement startThread(final Runnable runnable) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                new Thread(runnable).start();
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.stefanbirkner.fishbowl;
+
+import de.bechte.junit.runners.context.HierarchicalContextRunner;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.rules.ExpectedException.none;
+
+@RunWith(HierarchicalContextRunner.class)
+public class BulkheadTest {
+    private static final Statement DO_NOTHING = new Statement() {
+        @Override
+        public void evaluate() throws Throwable {
+        }
+    };
+    private static final StatementWithReturnValue<String> RETURN_VALUE
+        = new StatementWithReturnValue<String>() {
+            @Override
+            public String evaluate() throws Throwable {
+                return "value";
+            }
+        };
+
+    @Rule
+    public final ExpectedException thrown = none();
+
+    private final Bulkhead bulkhead = new Bulkhead(1);
+    private final ExecutorService executor = newSingleThreadExecutor();
+    private final CountDownLatch executionStarted = new CountDownLatch(1);
+    private final CountDownLatch executionMayFinish = new CountDownLatch(1);
+
+    @After
+    public void finishExecutionAndShutdownExecutor() {
+        executionMayFinish.countDown();
+        executor.shutdownNow();
+    }
+
+    public class with_free_permit {
+        @Test
+        public void returns_the_value_of_the_statement() {
+            String value = bulkhead.evaluate(RETURN_VALUE);
+            assertThat(value, is(equalTo("value")));
+        }
+
+        @Test
+        public void returns_the_value_of_the_statement_instead_of_the_default_value() {
+            String value = bulkhead.evaluateOrDefault(RETURN_VALUE, "default");
+            assertThat(value, is(equalTo("value")));
+        }
+
+        @Test
+        public void executes_the_statement_instead_of_skipping_it() {
+            boolean executed = bulkhead.evaluateOrSkip(DO_NOTHING);
+            assertThat(executed, is(true));
+        }
+
+        @Test
+        public void wraps_a_checked_exception_that_is_thrown_by_the_statement() {
+            final IOException exception = new IOException();
+            thrown.expect(WrappedException.class);
+            thrown.expectCause(sameInstance(exception));
+            bulkhead.evaluate(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    throw exception;
+                }
+            });
+        }
+
+        @Test
+        public void returns_the_permit_if_the_statement_throws_an_exception() {
+            Fishbowl.ignoreException(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    bulkhead.evaluate(new Statement() {
+                        @Override
+                        public void evaluate() throws Throwable {
+                            throw new IOException();
+                        }
+                    });
+                }
+            });
+            assertThat(bulkhead.getConcurrentExecutions(), is(0));
+        }
+    }
+
+    public class without_free_permit {
+        @Test
+        public void throws_an_ExecutionRejectedException() throws Exception {
+            occupyPermit();
+            thrown.expect(ExecutionRejectedException.class);
+            thrown.expectMessage("The statement has been rejected by"
+                + " Bulkhead[maxConcurrentExecutions=1].");
+            bulkhead.evaluate(DO_NOTHING);
+        }
+
+        @Test
+        public void returns_the_default_value() throws Exception {
+            occupyPermit();
+            String value = bulkhead.evaluateOrDefault(RETURN_VALUE, "default");
+            assertThat(value, is(equalTo("default")));
+        }
+
+        @Test
+        public void skips_the_statement() throws Exception {
+            occupyPermit();
+            boolean executed = bulkhead.evaluateOrSkip(DO_NOTHING);
+            assertThat(executed, is(false));
+        }
+    }
+
+    private void occupyPermit() throws InterruptedException {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                bulkhead.evaluate(new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        executionStarted.countDown();
+                        executionMayFinish.await();
+                    }
+                });
+            }
+        });
+        executionStarted.await();
+    }
+}
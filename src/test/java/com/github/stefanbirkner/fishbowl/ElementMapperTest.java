@@ -0,0 +1,131 @@
+package com.github.stefanbirkner.fishbowl;
+
+import de.bechte.junit.runners.context.HierarchicalContextRunner;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.stefanbirkner.fishbowl.ElementMapper.defaultingIfException;
+import static com.github.stefanbirkner.fishbowl.ElementMapper.ignoringException;
+import static com.github.stefanbirkner.fishbowl.ElementMapper.wrappingCheckedException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.rules.ExpectedException.none;
+
+@RunWith(HierarchicalContextRunner.class)
+public class ElementMapperTest {
+    private static final IOException CHECKED_EXCEPTION = new IOException();
+    private static final IllegalStateException RUNTIME_EXCEPTION
+        = new IllegalStateException();
+    private static final StatementWithArgument<String, Integer> PARSE
+        = new StatementWithArgument<String, Integer>() {
+            @Override
+            public Integer evaluate(String argument) throws Throwable {
+                if (argument.equals("checked"))
+                    throw CHECKED_EXCEPTION;
+                else if (argument.equals("runtime"))
+                    throw RUNTIME_EXCEPTION;
+                else
+                    return Integer.valueOf(argument);
+            }
+        };
+
+    @Rule
+    public final ExpectedException thrown = none();
+
+    private final RecordingReceiver receiver = new RecordingReceiver();
+
+    public class wrapping_mapper {
+        private final ElementMapper<String, Integer> mapper
+            = wrappingCheckedException(PARSE);
+
+        @Test
+        public void emits_the_mapped_element() {
+            boolean emitted = mapper.map("1", receiver);
+            assertThat(emitted, is(true));
+            assertThat(receiver.elements, contains(1));
+        }
+
+        @Test
+        public void throws_a_WrappedException_whose_cause_is_the_checked_exception() {
+            thrown.expect(WrappedException.class);
+            thrown.expectCause(sameInstance(CHECKED_EXCEPTION));
+            mapper.map("checked", receiver);
+        }
+
+        @Test
+        public void throws_the_RuntimeException() {
+            thrown.expect(sameInstance(RUNTIME_EXCEPTION));
+            mapper.map("runtime", receiver);
+        }
+    }
+
+    public class defaulting_mapper {
+        private final ElementMapper<String, Integer> mapper
+            = defaultingIfException(PARSE, IOException.class, -1);
+
+        @Test
+        public void emits_the_mapped_element() {
+            mapper.map("1", receiver);
+            assertThat(receiver.elements, contains(1));
+        }
+
+        @Test
+        public void emits_the_default_value_if_an_exception_of_the_specified_type_is_thrown() {
+            boolean emitted = mapper.map("checked", receiver);
+            assertThat(emitted, is(true));
+            assertThat(receiver.elements, contains(-1));
+        }
+
+        @Test
+        public void throws_an_exception_of_a_different_type() {
+            thrown.expect(sameInstance(RUNTIME_EXCEPTION));
+            mapper.map("runtime", receiver);
+        }
+    }
+
+    public class ignoring_mapper {
+        private final ElementMapper<String, Integer> mapper
+            = ignoringException(PARSE, IOException.class);
+
+        @Test
+        public void emits_the_mapped_element() {
+            mapper.map("1", receiver);
+            assertThat(receiver.elements, contains(1));
+        }
+
+        @Test
+        public void drops_the_element_if_an_exception_of_the_specified_type_is_thrown() {
+            boolean emitted = mapper.map("checked", receiver);
+            assertThat(emitted, is(false));
+            assertThat(receiver.elements, is(empty()));
+        }
+
+        @Test
+        public void continues_with_the_next_element_after_a_dropped_element() {
+            mapper.map("checked", receiver);
+            mapper.map("2", receiver);
+            assertThat(receiver.elements, contains(2));
+        }
+
+        @Test
+        public void throws_an_exception_of_a_different_type() {
+            thrown.expect(sameInstance(RUNTIME_EXCEPTION));
+            mapper.map("runtime", receiver);
+        }
+    }
+
+    private static class RecordingReceiver implements ElementReceiver<Integer> {
+        final List<Integer> elements = new ArrayList<Integer>();
+
+        @Override
+        public void receive(Integer element) {
+            elements.add(element);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.github.stefanbirkner.fishbowl;
+
+import de.bechte.junit.runners.context.HierarchicalContextRunner;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.sql.SQLException;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static com.github.stefanbirkner.fishbowl.Fishbowl.wrapCheckedException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.rules.ExpectedException.none;
+
+@RunWith(HierarchicalContextRunner.class)
+public class ExceptionTranslationTest {
+    private static final ExceptionTranslation TRANSLATION
+        = new ExceptionTranslation()
+            .translating(SQLException.class, DataAccessException.class)
+            .translating(IOException.class, TransientFailure.class);
+
+    @Rule
+    public final ExpectedException thrown = none();
+
+    public class translate {
+        @After
+        public void clearInterruptStatus() {
+            Thread.interrupted();
+        }
+
+        @Test
+        public void uses_the_constructor_that_accepts_the_checked_exception() {
+            SQLException exception = new SQLException();
+            RuntimeException translation = TRANSLATION.translate(exception);
+            assertThat(translation, is(instanceOf(DataAccessException.class)));
+            assertThat(translation.getCause(),
+                is(sameInstance((Throwable) exception)));
+        }
+
+        @Test
+        public void uses_the_constructor_with_message_and_cause() {
+            IOException exception = new IOException("dummy message");
+            RuntimeException translation = TRANSLATION.translate(exception);
+            assertThat(translation, is(instanceOf(TransientFailure.class)));
+            assertThat(translation.getMessage(), is(equalTo("dummy message")));
+            assertThat(translation.getCause(),
+                is(sameInstance((Throwable) exception)));
+        }
+
+        @Test
+        public void uses_the_registration_of_the_closest_superclass() {
+            RuntimeException translation = TRANSLATION.translate(
+                new FileNotFoundException());
+            assertThat(translation, is(instanceOf(TransientFailure.class)));
+        }
+
+        @Test
+        public void encloses_an_exception_without_registration_with_a_WrappedException() {
+            Exception exception = new Exception();
+            RuntimeException translation = TRANSLATION.translate(exception);
+            assertThat(translation, is(instanceOf(WrappedException.class)));
+            assertThat(translation.getCause(),
+                is(sameInstance((Throwable) exception)));
+        }
+
+        @Test
+        public void keeps_the_exception_if_the_unchecked_exception_cannot_be_created() {
+            IOException exception = new IOException();
+            IllegalStateException failure = exceptionThrownBy(
+                translationOf(exception), IllegalStateException.class);
+            assertThat(failure.getCause(),
+                is(sameInstance((Throwable) exception)));
+            assertThat(failure.getMessage(),
+                containsString("java.lang.UnsupportedOperationException"));
+        }
+
+        @Test
+        public void restores_the_interrupt_status_for_an_InterruptedException() {
+            TRANSLATION.translate(new InterruptedException());
+            assertThat(Thread.interrupted(), is(true));
+        }
+    }
+
+    public class registration {
+        @Test
+        public void is_rejected_if_the_unchecked_type_has_no_suitable_constructor() {
+            thrown.expect(IllegalArgumentException.class);
+            thrown.expectMessage(DataAccessException.class.getName()
+                + " has no public constructor that accepts a"
+                + " java.io.IOException.");
+            new ExceptionTranslation()
+                .translating(IOException.class, DataAccessException.class);
+        }
+
+        @Test
+        public void does_not_modify_the_original_translation() {
+            ExceptionTranslation original = new ExceptionTranslation();
+            original.translating(IOException.class, TransientFailure.class);
+            RuntimeException translation = original.translate(new IOException());
+            assertThat(translation, is(instanceOf(WrappedException.class)));
+        }
+    }
+
+    public class wrapCheckedException_with_translation {
+        @Test
+        public void throws_the_translated_exception() {
+            thrown.expect(DataAccessException.class);
+            wrapCheckedException(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    throw new SQLException();
+                }
+            }, TRANSLATION);
+        }
+
+        @Test
+        public void throws_the_translated_exception_for_a_statement_with_return_value() {
+            thrown.expect(TransientFailure.class);
+            wrapCheckedException(new StatementWithReturnValue<String>() {
+                @Override
+                public String evaluate() throws Throwable {
+                    throw new IOException();
+                }
+            }, TRANSLATION);
+        }
+
+        @Test
+        public void rethrows_a_RuntimeException() {
+            final IllegalStateException exception = new IllegalStateException();
+            thrown.expect(sameInstance(exception));
+            wrapCheckedException(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    throw exception;
+                }
+            }, TRANSLATION);
+        }
+
+        @Test
+        public void returns_the_value_of_the_statement() {
+            String value = wrapCheckedException(
+                new StatementWithReturnValue<String>() {
+                    @Override
+                    public String evaluate() throws Throwable {
+                        return "value";
+                    }
+                },
+                TRANSLATION);
+            assertThat(value, is(equalTo("value")));
+        }
+    }
+
+    private static Statement translationOf(final Throwable exception) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                new ExceptionTranslation()
+                    .translating(IOException.class, BrokenException.class)
+                    .translate(exception);
+            }
+        };
+    }
+
+    public static class DataAccessException extends RuntimeException {
+        public DataAccessException(SQLException cause) {
+            super(cause);
+        }
+    }
+
+    public static class TransientFailure extends RuntimeException {
+        public TransientFailure(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    public static class BrokenException extends RuntimeException {
+        public BrokenException(Throwable cause) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -2,15 +2,33 @@ package com.github.stefanbirkner.fishbowl;
 
 
 import de.bechte.junit.runners.context.HierarchicalContextRunner;
+import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.github.stefanbirkner.fishbowl.Fishbowl.*;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.hamcrest.Matchers.*;
 import static org.junit.rules.ExpectedException.none;
 import static org.mockito.Mockito.mock;
@@ -33,6 +51,13 @@ public class FishbowlTest {
         }
     };
 
+    private static final Statement SLEEP = new Statement() {
+        @Override
+        public void evaluate() throws Throwable {
+            Thread.sleep(10);
+        }
+    };
+
     @Rule
     public final ExpectedException thrown = none();
 
@@ -86,6 +111,114 @@ public class FishbowlTest {
         }
     }
 
+    public class exceptionThrownBy_for_future {
+        @Test
+        public void returns_the_exception_that_is_thrown_by_the_computation() {
+            Throwable exception = exceptionThrownBy(
+                completedFutureThatThrows(DUMMY_EXCEPTION), 1, SECONDS);
+            assertThat(exception, is(sameInstance(DUMMY_EXCEPTION)));
+        }
+
+        @Test
+        public void returns_the_exception_that_is_thrown_by_the_computation_if_it_has_the_expected_type() {
+            IOException failure = new IOException();
+            IOException exception = exceptionThrownBy(
+                completedFutureThatThrows(failure), IOException.class,
+                1, SECONDS);
+            assertThat(exception, is(sameInstance(failure)));
+        }
+
+        @Test
+        public void returns_the_ExecutionException_if_it_has_no_cause() {
+            final ExecutionException failure
+                = new ExecutionException("dummy message", null);
+            FutureTask<String> future = new FutureTask<String>(
+                new Callable<String>() {
+                    @Override
+                    public String call() {
+                        return "";
+                    }
+                }) {
+                @Override
+                public String get(long timeout, TimeUnit unit)
+                        throws ExecutionException {
+                    throw failure;
+                }
+            };
+            Throwable exception = exceptionThrownBy(future, 1, SECONDS);
+            assertThat(exception, is(sameInstance((Throwable) failure)));
+        }
+
+        @Test
+        public void returns_the_CancellationException_of_a_cancelled_future() {
+            FutureTask<String> future = new FutureTask<String>(
+                new Callable<String>() {
+                    @Override
+                    public String call() {
+                        return "";
+                    }
+                });
+            future.cancel(false);
+            Throwable exception = exceptionThrownBy(future, 1, SECONDS);
+            assertThat(exception, is(instanceOf(CancellationException.class)));
+        }
+
+        @Test
+        public void throws_an_ExceptionNotThrownFailure_if_the_computation_completed_without_exception() {
+            FutureTask<String> future = new FutureTask<String>(
+                new Callable<String>() {
+                    @Override
+                    public String call() {
+                        return "";
+                    }
+                });
+            future.run();
+            thrown.expect(ExceptionNotThrownFailure.class);
+            thrown.expectMessage("The Future completed without an exception.");
+            exceptionThrownBy(future, 1, SECONDS);
+        }
+
+        @Test
+        public void throws_an_ExceptionWithWrongTypeThrownFailure_if_the_computation_throws_an_exception_of_a_different_type() {
+            thrown.expect(allOf(
+                instanceOf(ExceptionWithWrongTypeThrownFailure.class),
+                hasProperty("thrownException", sameInstance(DUMMY_EXCEPTION))
+            ));
+            exceptionThrownBy(
+                completedFutureThatThrows(DUMMY_EXCEPTION),
+                NullPointerException.class, 1, SECONDS);
+        }
+
+        @Test
+        public void throws_a_FutureNotCompletedFailure_if_the_computation_does_not_complete_in_time() {
+            FutureTask<String> future = new FutureTask<String>(
+                new Callable<String>() {
+                    @Override
+                    public String call() {
+                        return "";
+                    }
+                });
+            thrown.expect(FutureNotCompletedFailure.class);
+            thrown.expectMessage(
+                "The Future did not complete within 10 milliseconds.");
+            exceptionThrownBy(future, 10, MILLISECONDS);
+        }
+
+        private Future<String> completedFutureThatThrows(
+                final Throwable exception) {
+            FutureTask<String> future = new FutureTask<String>(
+                new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        throwUnchecked(exception);
+                        return "";
+                    }
+                });
+            future.run();
+            return future;
+        }
+    }
+
     public class wrapCheckedException_for_statement_without_return_value {
         @Test
         public void throws_a_WrappedException_whose_cause_is_the_exception_that_is_thrown_by_the_provided_statement() {
@@ -273,6 +406,519 @@ public class FishbowlTest {
         }
     }
 
+    public class interruption {
+        private final ExecutorService executor = newCachedThreadPool();
+
+        @After
+        public void shutdownExecutor() {
+            executor.shutdownNow();
+        }
+
+        @After
+        public void clearInterruptStatus() {
+            Thread.interrupted();
+        }
+
+        @Test
+        public void wrapCheckedException_throws_a_WrappedInterruptedException_if_the_statement_is_interrupted() {
+            final InterruptedException interruption = new InterruptedException();
+            WrappedInterruptedException exception = exceptionThrownBy(
+                new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        wrapCheckedException(
+                            statementWithReturnValueThatThrows(interruption));
+                    }
+                },
+                WrappedInterruptedException.class);
+            assertThat(exception.getCause(),
+                is(sameInstance((Throwable) interruption)));
+        }
+
+        @Test
+        public void invokeAll_throws_a_WrappedInterruptedException_if_a_statement_is_interrupted() {
+            final InterruptedException interruption = new InterruptedException();
+            WrappedInterruptedException exception = exceptionThrownBy(
+                new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        invokeAll(
+                            asList(statementWithReturnValueThatThrows(
+                                interruption)),
+                            executor);
+                    }
+                },
+                WrappedInterruptedException.class);
+            assertThat(exception.getCause(),
+                is(sameInstance((Throwable) interruption)));
+            assertThat(Thread.interrupted(), is(false));
+        }
+
+        @Test
+        public void wrapCheckedException_restores_the_interrupt_status() {
+            ignoreException(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    wrapCheckedException(
+                        statementThatThrows(new InterruptedException()));
+                }
+            });
+            assertThat(Thread.interrupted(), is(true));
+        }
+
+        @Test
+        public void defaultIfException_restores_the_interrupt_status_if_it_returns_the_default_value() {
+            defaultIfException(
+                statementWithReturnValueThatThrows(new InterruptedException()),
+                InterruptedException.class,
+                "");
+            assertThat(Thread.interrupted(), is(true));
+        }
+
+        @Test
+        public void ignoreException_restores_the_interrupt_status() {
+            ignoreException(statementThatThrows(new InterruptedException()));
+            assertThat(Thread.interrupted(), is(true));
+        }
+
+        @Test
+        public void ignoreException_with_type_restores_the_interrupt_status() {
+            ignoreException(
+                statementThatThrows(new InterruptedException()),
+                InterruptedException.class);
+            assertThat(Thread.interrupted(), is(true));
+        }
+
+        @Test
+        public void ignoreException_with_different_type_throws_a_WrappedInterruptedException() {
+            thrown.expect(WrappedInterruptedException.class);
+            ignoreException(
+                statementThatThrows(new InterruptedException()),
+                IOException.class);
+        }
+
+        @Test
+        public void an_executor_whose_task_ignores_exceptions_shuts_down_promptly()
+                throws Exception {
+            final CountDownLatch taskStarted = new CountDownLatch(1);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    taskStarted.countDown();
+                    while (!Thread.currentThread().isInterrupted())
+                        ignoreException(SLEEP);
+                }
+            });
+            taskStarted.await();
+            executor.shutdownNow();
+            assertThat(executor.awaitTermination(5, SECONDS), is(true));
+        }
+
+        @Test
+        public void an_executor_whose_task_uses_default_values_shuts_down_promptly()
+                throws Exception {
+            final CountDownLatch taskStarted = new CountDownLatch(1);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    taskStarted.countDown();
+                    while (!Thread.currentThread().isInterrupted())
+                        defaultIfException(
+                            new StatementWithReturnValue<String>() {
+                                @Override
+                                public String evaluate() throws Throwable {
+                                    SLEEP.evaluate();
+                                    return "";
+                                }
+                            },
+                            Exception.class,
+                            "default value");
+                }
+            });
+            taskStarted.await();
+            executor.shutdownNow();
+            assertThat(executor.awaitTermination(5, SECONDS), is(true));
+        }
+    }
+
+    public class invokeAll {
+        private final ExecutorService executor = newCachedThreadPool();
+
+        @After
+        public void shutdownExecutor() {
+            executor.shutdownNow();
+        }
+
+        @Test
+        public void returns_the_values_of_the_statements_in_the_order_of_the_statements() {
+            List<String> values = invokeAll(
+                asList(
+                    statementThatReturnsAfterDelay("first", 50),
+                    statementThatReturnsAfterDelay("second", 0)),
+                executor);
+            assertThat(values, contains("first", "second"));
+        }
+
+        @Test
+        public void throws_the_RuntimeException_that_is_thrown_by_a_statement() {
+            thrown.expect(sameInstance(DUMMY_RUNTIME_EXCEPTION));
+            invokeAll(
+                asList(
+                    RETURN_EMPTY_STRING,
+                    statementWithReturnValueThatThrows(DUMMY_RUNTIME_EXCEPTION)),
+                executor);
+        }
+
+        @Test
+        public void throws_the_Error_that_is_thrown_by_a_statement() {
+            thrown.expect(sameInstance(DUMMY_ERROR));
+            invokeAll(
+                asList(statementWithReturnValueThatThrows(DUMMY_ERROR)),
+                executor);
+        }
+
+        @Test
+        public void throws_a_WrappedException_whose_cause_is_the_checked_exception_that_is_thrown_by_a_statement() {
+            thrown.expect(WrappedException.class);
+            thrown.expectCause(sameInstance(DUMMY_EXCEPTION));
+            invokeAll(
+                asList(statementWithReturnValueThatThrows(DUMMY_EXCEPTION)),
+                executor);
+        }
+
+        @Test
+        public void cancels_the_other_statements_if_a_statement_fails()
+                throws Exception {
+            final CountDownLatch siblingStarted = new CountDownLatch(1);
+            final CountDownLatch siblingInterrupted = new CountDownLatch(1);
+            StatementWithReturnValue<String> blockingStatement
+                = new StatementWithReturnValue<String>() {
+                    @Override
+                    public String evaluate() throws Throwable {
+                        siblingStarted.countDown();
+                        try {
+                            new CountDownLatch(1).await();
+                        } finally {
+                            siblingInterrupted.countDown();
+                        }
+                        return "";
+                    }
+                };
+            StatementWithReturnValue<String> failingStatement
+                = new StatementWithReturnValue<String>() {
+                    @Override
+                    public String evaluate() throws Throwable {
+                        siblingStarted.await();
+                        throw DUMMY_RUNTIME_EXCEPTION;
+                    }
+                };
+            ignoreException(invokeAllStatement(asList(
+                blockingStatement, failingStatement)));
+            assertThat(siblingInterrupted.await(5, SECONDS), is(true));
+        }
+
+        @Test
+        public void returns_the_default_value_for_statements_that_throw_an_exception_of_the_specified_type() {
+            List<String> values = invokeAll(
+                asList(
+                    RETURN_EMPTY_STRING,
+                    statementWithReturnValueThatThrows(new IOException())),
+                executor, IOException.class, "default value");
+            assertThat(values, contains("", "default value"));
+        }
+
+        @Test
+        public void throws_the_exception_that_is_thrown_by_a_statement_if_it_does_not_have_the_specified_type() {
+            thrown.expect(sameInstance(DUMMY_RUNTIME_EXCEPTION));
+            invokeAll(
+                asList(statementWithReturnValueThatThrows(DUMMY_RUNTIME_EXCEPTION)),
+                executor, IOException.class, "default value");
+        }
+
+        private Statement invokeAllStatement(
+                final List<StatementWithReturnValue<String>> statements) {
+            return new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    invokeAll(statements, executor);
+                }
+            };
+        }
+    }
+
+    public class closeAll {
+        @Test
+        public void closes_all_resources() {
+            RecordingResource first = new RecordingResource();
+            RecordingResource second = new RecordingResource();
+            closeAll(asList(first, second));
+            assertThat(first.closed, is(true));
+            assertThat(second.closed, is(true));
+        }
+
+        @Test
+        public void closes_all_resources_even_if_one_of_them_fails() {
+            RecordingResource resource = new RecordingResource();
+            ignoreException(closeAllStatement(
+                resourceThatThrows(new IOException()), resource));
+            assertThat(resource.closed, is(true));
+        }
+
+        @Test
+        public void throws_a_ResourcesNotClosedException_that_provides_all_failures() {
+            IOException firstFailure = new IOException();
+            RuntimeException secondFailure = new RuntimeException();
+            ResourcesNotClosedException exception = exceptionThrownBy(
+                closeAllStatement(
+                    resourceThatThrows(firstFailure),
+                    new RecordingResource(),
+                    resourceThatThrows(secondFailure)),
+                ResourcesNotClosedException.class);
+            assertThat(exception.getFailures(),
+                contains(firstFailure, secondFailure));
+            assertThat(exception.getCause(),
+                is(sameInstance((Throwable) firstFailure)));
+            assertThat(exception.getMessage(),
+                is(equalTo("2 of 3 resources could not be closed.")));
+        }
+
+        @Test
+        public void ignores_exceptions_of_the_specified_type() {
+            closeAll(
+                asList(resourceThatThrows(new IOException())),
+                IOException.class);
+        }
+
+        @Test
+        public void reports_exceptions_of_a_different_type() {
+            RuntimeException failure = new RuntimeException();
+            thrown.expect(ResourcesNotClosedException.class);
+            thrown.expectCause(sameInstance(failure));
+            closeAll(
+                asList(resourceThatThrows(new IOException()),
+                    resourceThatThrows(failure)),
+                IOException.class);
+        }
+    }
+
+    public class closeAll_in_parallel {
+        private final ExecutorService executor = newCachedThreadPool();
+
+        @After
+        public void shutdownExecutor() {
+            executor.shutdownNow();
+        }
+
+        @Test
+        public void closes_all_resources() {
+            RecordingResource first = new RecordingResource();
+            RecordingResource second = new RecordingResource();
+            closeAll(asList(first, second), executor, 5, SECONDS);
+            assertThat(first.closed, is(true));
+            assertThat(second.closed, is(true));
+        }
+
+        @Test
+        public void reports_resources_that_are_not_closed_in_time() {
+            BlockingResource blockingResource = new BlockingResource();
+            ResourcesNotClosedException exception = exceptionThrownBy(
+                closeAllInParallelStatement(blockingResource),
+                ResourcesNotClosedException.class);
+            assertThat(exception.getFailures(),
+                contains(instanceOf(TimeoutException.class)));
+        }
+
+        @Test
+        public void identifies_the_resource_that_is_not_closed_in_time() {
+            BlockingResource blockingResource = new BlockingResource();
+            ResourcesNotClosedException exception = exceptionThrownBy(
+                closeAllInParallelStatement(blockingResource),
+                ResourcesNotClosedException.class);
+            assertThat(exception.getCause().getMessage(), is(equalTo(
+                "The resource " + blockingResource
+                    + " has not been closed within 50 milliseconds.")));
+        }
+
+        @Test
+        public void starts_the_timeout_when_the_resource_is_being_closed() {
+            ExecutorService singleThread = newSingleThreadExecutor();
+            try {
+                List<SlowResource> resources = asList(
+                    new SlowResource(), new SlowResource(), new SlowResource(),
+                    new SlowResource(), new SlowResource());
+                closeAll(resources, singleThread, 100, MILLISECONDS);
+                for (SlowResource resource: resources)
+                    assertThat(resource.closed, is(true));
+            } finally {
+                singleThread.shutdownNow();
+            }
+        }
+
+        @Test
+        public void reports_resources_that_are_not_started_to_be_closed_in_time() {
+            final CountDownLatch release = new CountDownLatch(1);
+            final ExecutorService singleThread = newSingleThreadExecutor();
+            try {
+                final Closeable hangingResource = new Closeable() {
+                    @Override
+                    public void close() {
+                        awaitUninterruptibly(release);
+                    }
+                };
+                RecordingResource waitingResource = new RecordingResource();
+                final List<Closeable> resources
+                    = asList(hangingResource, waitingResource);
+                ResourcesNotClosedException exception = exceptionThrownBy(
+                    new Statement() {
+                        @Override
+                        public void evaluate() throws Throwable {
+                            closeAll(resources, singleThread, 50, MILLISECONDS);
+                        }
+                    },
+                    ResourcesNotClosedException.class);
+                assertThat(exception.getFailures(), contains(
+                    instanceOf(TimeoutException.class),
+                    instanceOf(TimeoutException.class)));
+                assertThat(waitingResource.closed, is(false));
+            } finally {
+                release.countDown();
+                singleThread.shutdownNow();
+            }
+        }
+
+        @Test
+        public void reports_resources_that_are_rejected_by_the_executor() {
+            executor.shutdown();
+            ResourcesNotClosedException exception = exceptionThrownBy(
+                closeAllInParallelStatement(new RecordingResource()),
+                ResourcesNotClosedException.class);
+            assertThat(exception.getFailures(),
+                contains(instanceOf(RejectedExecutionException.class)));
+        }
+
+        @Test
+        public void reports_exceptions_thrown_while_closing() {
+            IOException failure = new IOException();
+            ResourcesNotClosedException exception = exceptionThrownBy(
+                closeAllInParallelStatement(resourceThatThrows(failure)),
+                ResourcesNotClosedException.class);
+            assertThat(exception.getFailures(),
+                contains((Throwable) failure));
+        }
+
+        @Test
+        public void ignores_exceptions_of_the_specified_type() {
+            closeAll(
+                asList(resourceThatThrows(new IOException())),
+                IOException.class, executor, 5, SECONDS);
+        }
+
+        private Statement closeAllInParallelStatement(
+                final Closeable resource) {
+            return new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    closeAll(asList(resource), executor, 50, MILLISECONDS);
+                }
+            };
+        }
+    }
+
+    public class closeQuietly {
+        @Test
+        public void closes_all_resources_and_suppresses_exceptions() {
+            RecordingResource resource = new RecordingResource();
+            closeQuietly(asList(
+                resourceThatThrows(new IOException()),
+                resourceThatThrows(new Error()),
+                resource));
+            assertThat(resource.closed, is(true));
+        }
+    }
+
+    private static class RecordingResource implements Closeable {
+        volatile boolean closed = false;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static class BlockingResource implements Closeable {
+        @Override
+        public void close() throws IOException {
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                throw new IOException("interrupted");
+            }
+        }
+    }
+
+    private static class SlowResource implements Closeable {
+        volatile boolean closed = false;
+
+        @Override
+        public void close() throws IOException {
+            try {
+                MILLISECONDS.sleep(30);
+                closed = true;
+            } catch (InterruptedException e) {
+                throw new IOException("interrupted");
+            }
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private static Closeable resourceThatThrows(final Throwable exception) {
+        return new Closeable() {
+            @Override
+            public void close() throws IOException {
+                throwUnchecked(exception);
+            }
+        };
+    }
+
+    private static Statement closeAllStatement(final Closeable... resources) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                closeAll(asList(resources));
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> void throwUnchecked(Throwable exception)
+            throws E {
+        throw (E) exception;
+    }
+
+    private static StatementWithReturnValue<String> statementThatReturnsAfterDelay(
+            final String value, final long delayInMillis) {
+        return new StatementWithReturnValue<String>() {
+            @Override
+            public String evaluate() throws Throwable {
+                Thread.sleep(delayInMillis);
+                return value;
+            }
+        };
+    }
+
     private static Statement statementThatThrows(final Throwable exception) {
         return new Statement() {
             @Override
@@ -0,0 +1,224 @@
+package com.github.stefanbirkner.fishbowl;
+
+import de.bechte.junit.runners.context.HierarchicalContextRunner;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.defaultIfException;
+import static com.github.stefanbirkner.fishbowl.Fishbowl.ignoreException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(HierarchicalContextRunner.class)
+public class IgnoredExceptionLogTest {
+    private final IgnoredExceptionLog log = new IgnoredExceptionLog(2);
+
+    public class recording {
+        @Test
+        public void keeps_the_exception_together_with_the_thread_name_and_time() {
+            IOException exception = new IOException();
+            long before = System.currentTimeMillis();
+            log.record(exception);
+            IgnoredException ignoredException = log.getExceptions().get(0);
+            assertThat(ignoredException.getException(),
+                is(sameInstance((Throwable) exception)));
+            assertThat(ignoredException.getThreadName(),
+                is(equalTo(Thread.currentThread().getName())));
+            assertThat(ignoredException.getTimestamp(),
+                is(greaterThanOrEqualTo(before)));
+        }
+
+        @Test
+        public void provides_the_most_recent_exception_first() {
+            IOException first = new IOException();
+            IOException second = new IOException();
+            log.record(first);
+            log.record(second);
+            assertThat(log.getExceptions(), contains(
+                hasProperty("exception", sameInstance(second)),
+                hasProperty("exception", sameInstance(first))));
+        }
+
+        @Test
+        public void overwrites_the_oldest_exception_if_the_log_is_full() {
+            IOException first = new IOException();
+            IOException second = new IOException();
+            IOException third = new IOException();
+            log.record(first);
+            log.record(second);
+            log.record(third);
+            assertThat(log.getExceptions(), contains(
+                hasProperty("exception", sameInstance(third)),
+                hasProperty("exception", sameInstance(second))));
+        }
+
+        @Test
+        public void counts_all_recorded_exceptions() {
+            log.record(new IOException());
+            log.record(new IOException());
+            log.record(new IOException());
+            assertThat(log.getNumberOfRecordedExceptions(), is(3L));
+        }
+    }
+
+    public class installed_log {
+        @After
+        public void uninstallLog() {
+            IgnoredExceptionLog.uninstall();
+        }
+
+        @Test
+        public void records_exceptions_that_are_ignored_by_ignoreException() {
+            IgnoredExceptionLog.install(log);
+            IOException exception = new IOException();
+            ignoreException(statementThatThrows(exception));
+            assertThat(log.getExceptions(), contains(
+                hasProperty("exception", sameInstance(exception))));
+        }
+
+        @Test
+        public void records_exceptions_that_are_handled_by_defaultIfException() {
+            IgnoredExceptionLog.install(log);
+            final IOException exception = new IOException();
+            defaultIfException(
+                new StatementWithReturnValue<String>() {
+                    @Override
+                    public String evaluate() throws Throwable {
+                        throw exception;
+                    }
+                },
+                IOException.class,
+                "default value");
+            assertThat(log.getExceptions(), contains(
+                hasProperty("exception", sameInstance(exception))));
+        }
+
+        @Test
+        public void records_RuntimeExceptions_that_are_handled_by_defaultIfException() {
+            IgnoredExceptionLog.install(log);
+            final NumberFormatException exception = new NumberFormatException();
+            defaultIfException(
+                new StatementWithReturnValue<Long>() {
+                    @Override
+                    public Long evaluate() throws Throwable {
+                        throw exception;
+                    }
+                },
+                NumberFormatException.class,
+                0L);
+            assertThat(log.getExceptions(), contains(
+                hasProperty("exception", sameInstance(exception))));
+        }
+
+        @Test
+        public void records_RuntimeExceptions_that_are_ignored_by_ignoreException_with_type() {
+            IgnoredExceptionLog.install(log);
+            IllegalArgumentException exception = new IllegalArgumentException();
+            ignoreException(
+                statementThatThrows(exception), IllegalArgumentException.class);
+            assertThat(log.getExceptions(), contains(
+                hasProperty("exception", sameInstance(exception))));
+        }
+
+        @Test
+        public void records_Errors_that_are_handled_by_defaultIfException() {
+            IgnoredExceptionLog.install(log);
+            final AssertionError error = new AssertionError();
+            defaultIfException(
+                new StatementWithReturnValue<String>() {
+                    @Override
+                    public String evaluate() throws Throwable {
+                        throw error;
+                    }
+                },
+                AssertionError.class,
+                "default value");
+            assertThat(log.getExceptions(), contains(
+                hasProperty("exception", sameInstance(error))));
+        }
+
+        @Test
+        public void records_Errors_that_are_ignored_by_ignoreException_with_type() {
+            IgnoredExceptionLog.install(log);
+            AssertionError error = new AssertionError();
+            ignoreException(statementThatThrows(error), AssertionError.class);
+            assertThat(log.getExceptions(), contains(
+                hasProperty("exception", sameInstance(error))));
+        }
+
+        @Test
+        public void does_not_record_exceptions_after_it_has_been_uninstalled() {
+            IgnoredExceptionLog.install(log);
+            IgnoredExceptionLog.uninstall();
+            ignoreException(statementThatThrows(new IOException()));
+            assertThat(log.getExceptions(), is(empty()));
+        }
+    }
+
+    public class mbean {
+        private final MBeanServer server
+            = ManagementFactory.getPlatformMBeanServer();
+
+        @After
+        public void unregisterMBean() {
+            log.unregisterMBean();
+        }
+
+        @Test
+        public void provides_the_ignored_exceptions() throws Exception {
+            log.record(new IOException("dummy message"));
+            ObjectName name = log.registerMBean();
+            String[] exceptions
+                = (String[]) server.getAttribute(name, "IgnoredExceptions");
+            assertThat(exceptions, arrayContaining(
+                endsWith(" java.io.IOException: dummy message")));
+            assertThat(server.getAttribute(name, "Capacity"),
+                is((Object) 2));
+        }
+
+        @Test
+        public void is_registered_with_the_given_name() throws Exception {
+            ObjectName name = new ObjectName(
+                "com.github.stefanbirkner.fishbowl:type=IgnoredExceptionLog,name=test");
+            log.registerMBean(name);
+            assertThat(server.isRegistered(name), is(true));
+        }
+
+        @Test
+        public void can_be_replaced_by_another_log_after_it_has_been_unregistered()
+                throws Exception {
+            IgnoredExceptionLog otherLog = new IgnoredExceptionLog(3);
+            ObjectName name = log.registerMBean();
+            log.unregisterMBean();
+            otherLog.registerMBean();
+            try {
+                assertThat(server.getAttribute(name, "Capacity"),
+                    is((Object) 3));
+            } finally {
+                otherLog.unregisterMBean();
+            }
+        }
+
+        @Test
+        public void is_not_registered_after_it_has_been_unregistered() {
+            ObjectName name = log.registerMBean();
+            log.unregisterMBean();
+            assertThat(server.isRegistered(name), is(false));
+        }
+    }
+
+    private static Statement statementThatThrows(final Throwable exception) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                throw exception;
+            }
+        };
+    }
+}
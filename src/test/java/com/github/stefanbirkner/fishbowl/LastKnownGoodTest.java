@@ -0,0 +1,119 @@
+package com.github.stefanbirkner.fishbowl;
+
+import de.bechte.junit.runners.context.HierarchicalContextRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(HierarchicalContextRunner.class)
+public class LastKnownGoodTest {
+    private static final IOException FAILURE = new IOException();
+    private static final Object FAIL = new Object();
+
+    public class without_maximum_staleness {
+        @Test
+        public void returns_the_value_of_the_statement() throws Throwable {
+            LastKnownGood<Object> statement = new LastKnownGood<Object>(
+                statementWithOutcomes("first", "second"), IOException.class);
+            statement.evaluate();
+            Object value = statement.evaluate();
+            assertThat(value, is((Object) "second"));
+        }
+
+        @Test
+        public void returns_the_last_value_if_the_statement_throws_an_exception_of_the_specified_type()
+                throws Throwable {
+            LastKnownGood<Object> statement = new LastKnownGood<Object>(
+                statementWithOutcomes("first", FAIL), IOException.class);
+            statement.evaluate();
+            Object value = statement.evaluate();
+            assertThat(value, is((Object) "first"));
+        }
+
+        @Test
+        public void throws_the_exception_if_there_is_no_last_value() {
+            LastKnownGood<Object> statement = new LastKnownGood<Object>(
+                statementWithOutcomes(FAIL), IOException.class);
+            Throwable exception = exceptionThrownBy(evaluation(statement));
+            assertThat(exception, is(sameInstance((Throwable) FAILURE)));
+        }
+
+        @Test
+        public void throws_an_exception_of_a_different_type() throws Throwable {
+            LastKnownGood<Object> statement = new LastKnownGood<Object>(
+                statementWithOutcomes("first", FAIL),
+                IllegalStateException.class);
+            statement.evaluate();
+            Throwable exception = exceptionThrownBy(evaluation(statement));
+            assertThat(exception, is(sameInstance((Throwable) FAILURE)));
+        }
+
+        @Test
+        public void provides_the_last_value() throws Throwable {
+            LastKnownGood<Object> statement = new LastKnownGood<Object>(
+                statementWithOutcomes("first"), IOException.class);
+            statement.evaluate();
+            assertThat(statement.getLastKnownGood(), is((Object) "first"));
+        }
+    }
+
+    public class with_maximum_staleness {
+        @Test
+        public void returns_the_last_value_if_it_is_fresh_enough()
+                throws Throwable {
+            LastKnownGood<Object> statement = new LastKnownGood<Object>(
+                statementWithOutcomes("first", FAIL), IOException.class)
+                .withMaximumStaleness(1, HOURS);
+            statement.evaluate();
+            Object value = statement.evaluate();
+            assertThat(value, is((Object) "first"));
+        }
+
+        @Test
+        public void throws_the_exception_if_the_last_value_is_too_old()
+                throws Throwable {
+            LastKnownGood<Object> statement = new LastKnownGood<Object>(
+                statementWithOutcomes("first", FAIL), IOException.class)
+                .withMaximumStaleness(10, MILLISECONDS);
+            statement.evaluate();
+            Thread.sleep(20);
+            Throwable exception = exceptionThrownBy(evaluation(statement));
+            assertThat(exception, is(sameInstance((Throwable) FAILURE)));
+        }
+    }
+
+    private static StatementWithReturnValue<Object> statementWithOutcomes(
+            Object... outcomes) {
+        final Iterator<Object> remainingOutcomes
+            = Arrays.asList(outcomes).iterator();
+        return new StatementWithReturnValue<Object>() {
+            @Override
+            public Object evaluate() throws Throwable {
+                Object outcome = remainingOutcomes.next();
+                if (outcome == FAIL)
+                    throw FAILURE;
+                else
+                    return outcome;
+            }
+        };
+    }
+
+    private static Statement evaluation(
+            final StatementWithReturnValue<?> statement) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                statement.evaluate();
+            }
+        };
+    }
+}
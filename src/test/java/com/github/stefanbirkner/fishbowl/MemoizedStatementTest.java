@@ -0,0 +1,214 @@
+package com.github.stefanbirkner.fishbowl;
+
+import de.bechte.junit.runners.context.HierarchicalContextRunner;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static com.github.stefanbirkner.fishbowl.Fishbowl.ignoreException;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(HierarchicalContextRunner.class)
+public class MemoizedStatementTest {
+    private final AtomicInteger numberOfEvaluations = new AtomicInteger();
+    private final StatementWithReturnValue<Integer> countingStatement
+        = new StatementWithReturnValue<Integer>() {
+            @Override
+            public Integer evaluate() throws Throwable {
+                return numberOfEvaluations.incrementAndGet();
+            }
+        };
+
+    public class without_expiry {
+        @Test
+        public void evaluates_the_underlying_statement_only_once()
+                throws Throwable {
+            MemoizedStatement<Integer> statement
+                = new MemoizedStatement<Integer>(countingStatement);
+            statement.evaluate();
+            Integer value = statement.evaluate();
+            assertThat(value, is(1));
+            assertThat(numberOfEvaluations.get(), is(1));
+        }
+
+        @Test
+        public void evaluates_the_underlying_statement_again_after_it_has_been_invalidated()
+                throws Throwable {
+            MemoizedStatement<Integer> statement
+                = new MemoizedStatement<Integer>(countingStatement);
+            statement.evaluate();
+            statement.invalidate();
+            Integer value = statement.evaluate();
+            assertThat(value, is(2));
+        }
+    }
+
+    public class concurrent_evaluations {
+        private final ExecutorService executor = newCachedThreadPool();
+
+        @After
+        public void shutdownExecutor() {
+            executor.shutdownNow();
+        }
+
+        @Test
+        public void are_coalesced_into_a_single_evaluation() throws Exception {
+            final CountDownLatch evaluationMayFinish = new CountDownLatch(1);
+            final MemoizedStatement<Integer> statement
+                = new MemoizedStatement<Integer>(
+                    new StatementWithReturnValue<Integer>() {
+                        @Override
+                        public Integer evaluate() throws Throwable {
+                            evaluationMayFinish.await();
+                            return numberOfEvaluations.incrementAndGet();
+                        }
+                    });
+            List<Future<Integer>> values = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < 10; ++i)
+                values.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        return Fishbowl.wrapCheckedException(statement);
+                    }
+                }));
+            evaluationMayFinish.countDown();
+            for (Future<Integer> value: values)
+                assertThat(value.get(5, SECONDS), is(1));
+            assertThat(numberOfEvaluations.get(), is(1));
+        }
+    }
+
+    public class with_expiry {
+        @Test
+        public void returns_the_cached_value_before_expiry() throws Throwable {
+            MemoizedStatement<Integer> statement
+                = new MemoizedStatement<Integer>(countingStatement)
+                    .expireAfter(1, HOURS);
+            statement.evaluate();
+            Integer value = statement.evaluate();
+            assertThat(value, is(1));
+        }
+
+        @Test
+        public void evaluates_the_underlying_statement_again_after_expiry()
+                throws Throwable {
+            MemoizedStatement<Integer> statement
+                = new MemoizedStatement<Integer>(countingStatement)
+                    .expireAfter(10, MILLISECONDS);
+            statement.evaluate();
+            Thread.sleep(20);
+            Integer value = statement.evaluate();
+            assertThat(value, is(2));
+        }
+    }
+
+    public class with_refresh {
+        @Test
+        public void refreshes_the_value_after_the_specified_time()
+                throws Throwable {
+            MemoizedStatement<Integer> statement
+                = new MemoizedStatement<Integer>(countingStatement)
+                    .refreshAfter(10, MILLISECONDS);
+            statement.evaluate();
+            Thread.sleep(20);
+            Integer value = statement.evaluate();
+            assertThat(value, is(2));
+        }
+
+        @Test
+        public void keeps_the_current_value_if_the_refresh_fails()
+                throws Throwable {
+            final AtomicInteger evaluations = new AtomicInteger();
+            MemoizedStatement<Integer> statement
+                = new MemoizedStatement<Integer>(
+                    new StatementWithReturnValue<Integer>() {
+                        @Override
+                        public Integer evaluate() throws Throwable {
+                            if (evaluations.incrementAndGet() > 1)
+                                throw new IOException();
+                            return 1;
+                        }
+                    })
+                    .refreshAfter(10, MILLISECONDS);
+            statement.evaluate();
+            Thread.sleep(20);
+            Integer value = statement.evaluate();
+            assertThat(value, is(1));
+        }
+    }
+
+    public class failures {
+        private final IOException failure = new IOException();
+        private final StatementWithReturnValue<Integer> failingStatement
+            = new StatementWithReturnValue<Integer>() {
+                @Override
+                public Integer evaluate() throws Throwable {
+                    numberOfEvaluations.incrementAndGet();
+                    throw failure;
+                }
+            };
+
+        @Test
+        public void are_thrown() {
+            MemoizedStatement<Integer> statement
+                = new MemoizedStatement<Integer>(failingStatement);
+            Throwable exception = exceptionThrownBy(evaluation(statement));
+            assertThat(exception, is(sameInstance((Throwable) failure)));
+        }
+
+        @Test
+        public void are_not_cached_by_default() {
+            MemoizedStatement<Integer> statement
+                = new MemoizedStatement<Integer>(failingStatement);
+            ignoreException(evaluation(statement));
+            ignoreException(evaluation(statement));
+            assertThat(numberOfEvaluations.get(), is(2));
+        }
+
+        @Test
+        public void are_cached_if_they_have_the_specified_type() {
+            MemoizedStatement<Integer> statement
+                = new MemoizedStatement<Integer>(failingStatement)
+                    .cacheFailures(IOException.class, 1, HOURS);
+            ignoreException(evaluation(statement));
+            Throwable exception = exceptionThrownBy(evaluation(statement));
+            assertThat(exception, is(sameInstance((Throwable) failure)));
+            assertThat(numberOfEvaluations.get(), is(1));
+        }
+
+        @Test
+        public void are_not_cached_if_they_have_a_different_type() {
+            MemoizedStatement<Integer> statement
+                = new MemoizedStatement<Integer>(failingStatement)
+                    .cacheFailures(IllegalStateException.class, 1, HOURS);
+            ignoreException(evaluation(statement));
+            ignoreException(evaluation(statement));
+            assertThat(numberOfEvaluations.get(), is(2));
+        }
+    }
+
+    private static Statement evaluation(
+            final StatementWithReturnValue<?> statement) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                statement.evaluate();
+            }
+        };
+    }
+}
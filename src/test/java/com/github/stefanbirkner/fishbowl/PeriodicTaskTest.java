@@ -0,0 +1,203 @@
+package com.github.stefanbirkner.fishbowl;
+
+import de.bechte.junit.runners.context.HierarchicalContextRunner;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(HierarchicalContextRunner.class)
+public class PeriodicTaskTest {
+    private final ScheduledExecutorService scheduler
+        = newSingleThreadScheduledExecutor();
+    private final AtomicInteger numberOfExecutions = new AtomicInteger();
+
+    @After
+    public void shutdownScheduler() {
+        scheduler.shutdownNow();
+    }
+
+    public class successful_statement {
+        @Test
+        public void is_executed_periodically() throws Exception {
+            CountDownLatch executions = new CountDownLatch(3);
+            PeriodicTask task = new PeriodicTask(
+                countDown(executions), IOException.class, 10, MILLISECONDS);
+            task.start(scheduler);
+            assertThat(executions.await(5, SECONDS), is(true));
+        }
+
+        @Test
+        public void is_no_longer_executed_after_the_task_has_been_stopped()
+                throws Exception {
+            final CountDownLatch firstExecution = new CountDownLatch(1);
+            final PeriodicTask[] task = new PeriodicTask[1];
+            task[0] = new PeriodicTask(
+                new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        numberOfExecutions.incrementAndGet();
+                        task[0].stop();
+                        firstExecution.countDown();
+                    }
+                },
+                IOException.class, 10, MILLISECONDS);
+            task[0].start(scheduler);
+            firstExecution.await();
+            awaitTerminationOfScheduler();
+            assertThat(numberOfExecutions.get(), is(1));
+            assertThat(task[0].isStopped(), is(true));
+        }
+
+        @Test
+        public void provides_the_timing_of_the_last_execution()
+                throws Exception {
+            long before = System.currentTimeMillis();
+            PeriodicTask task = new PeriodicTask(
+                sleep(20), IOException.class, 1, HOURS);
+            task.start(scheduler);
+            awaitTerminationOfScheduler();
+            assertThat(task.getLastStartTime(),
+                is(greaterThanOrEqualTo(before)));
+            assertThat(task.getLastDuration(MILLISECONDS),
+                is(greaterThanOrEqualTo(20L)));
+        }
+    }
+
+    public class failing_statement {
+        @Test
+        public void is_executed_again_if_the_exception_is_tolerated()
+                throws Exception {
+            final CountDownLatch executions = new CountDownLatch(3);
+            PeriodicTask task = new PeriodicTask(
+                new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        executions.countDown();
+                        throw new IOException();
+                    }
+                },
+                IOException.class, 10, MILLISECONDS);
+            task.start(scheduler);
+            assertThat(executions.await(5, SECONDS), is(true));
+            assertThat(task.getLastFailure(), is(instanceOf(IOException.class)));
+        }
+
+        @Test
+        public void stops_the_task_if_the_exception_is_not_tolerated()
+                throws Exception {
+            final CountDownLatch firstExecution = new CountDownLatch(1);
+            final IllegalStateException failure = new IllegalStateException();
+            PeriodicTask task = new PeriodicTask(
+                new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        numberOfExecutions.incrementAndGet();
+                        firstExecution.countDown();
+                        throw failure;
+                    }
+                },
+                IOException.class, 10, MILLISECONDS);
+            task.start(scheduler);
+            firstExecution.await();
+            awaitTerminationOfScheduler();
+            assertThat(numberOfExecutions.get(), is(1));
+            assertThat(task.isStopped(), is(true));
+            assertThat(task.getLastFailure(),
+                is(sameInstance((Throwable) failure)));
+        }
+
+        @Test
+        public void is_executed_less_often_with_backoff() throws Exception {
+            PeriodicTask task = new PeriodicTask(
+                new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        numberOfExecutions.incrementAndGet();
+                        throw new IOException();
+                    }
+                },
+                IOException.class, 10, MILLISECONDS)
+                .withMaximumBackoff(1, HOURS);
+            task.start(scheduler);
+            Thread.sleep(200);
+            assertThat(numberOfExecutions.get(), is(lessThanOrEqualTo(6)));
+            assertThat(task.getConsecutiveFailures(),
+                is(numberOfExecutions.get()));
+        }
+    }
+
+    public class task_with_worker {
+        private final ExecutorService worker = newCachedThreadPool();
+
+        @After
+        public void shutdownWorker() {
+            worker.shutdownNow();
+        }
+
+        @Test
+        public void does_not_block_other_tasks_of_the_scheduler()
+                throws Exception {
+            CountDownLatch otherTaskExecuted = new CountDownLatch(1);
+            new PeriodicTask(sleep(10000), IOException.class, 1, HOURS)
+                .start(scheduler, worker);
+            new PeriodicTask(
+                countDown(otherTaskExecuted), IOException.class, 1, HOURS)
+                .start(scheduler);
+            assertThat(otherTaskExecuted.await(5, SECONDS), is(true));
+        }
+
+        @Test
+        public void skips_executions_while_the_statement_is_running()
+                throws Exception {
+            PeriodicTask task = new PeriodicTask(
+                new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        numberOfExecutions.incrementAndGet();
+                        Thread.sleep(100);
+                    }
+                },
+                IOException.class, 10, MILLISECONDS);
+            task.start(scheduler, worker);
+            Thread.sleep(150);
+            assertThat(numberOfExecutions.get(), is(lessThanOrEqualTo(2)));
+        }
+    }
+
+    private void awaitTerminationOfScheduler() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, SECONDS);
+    }
+
+    private Statement countDown(final CountDownLatch latch) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                latch.countDown();
+            }
+        };
+    }
+
+    private Statement sleep(final long millis) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                Thread.sleep(millis);
+            }
+        };
+    }
+}
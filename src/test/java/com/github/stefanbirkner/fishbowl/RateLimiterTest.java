@@ -0,0 +1,39 @@
+package com.github.stefanbirkner.fishbowl;
+
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class RateLimiterTest {
+    private static final Statement DO_NOTHING = new Statement() {
+        @Override
+        public void evaluate() throws Throwable {
+        }
+    };
+
+    @Test
+    public void executes_statements_up_to_the_number_of_permits() {
+        RateLimiter rateLimiter = new RateLimiter(2, 1, HOURS);
+        assertThat(rateLimiter.evaluateOrSkip(DO_NOTHING), is(true));
+        assertThat(rateLimiter.evaluateOrSkip(DO_NOTHING), is(true));
+    }
+
+    @Test
+    public void rejects_statements_that_exceed_the_number_of_permits() {
+        RateLimiter rateLimiter = new RateLimiter(2, 1, HOURS);
+        rateLimiter.evaluateOrSkip(DO_NOTHING);
+        rateLimiter.evaluateOrSkip(DO_NOTHING);
+        assertThat(rateLimiter.evaluateOrSkip(DO_NOTHING), is(false));
+    }
+
+    @Test
+    public void permits_statements_again_after_the_period() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(1, 20, MILLISECONDS);
+        rateLimiter.evaluateOrSkip(DO_NOTHING);
+        Thread.sleep(40);
+        assertThat(rateLimiter.evaluateOrSkip(DO_NOTHING), is(true));
+    }
+}
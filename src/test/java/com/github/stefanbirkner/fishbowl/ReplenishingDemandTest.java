@@ -0,0 +1,142 @@
+package com.github.stefanbirkner.fishbowl;
+
+import de.bechte.junit.runners.context.HierarchicalContextRunner;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.rules.ExpectedException.none;
+
+@RunWith(HierarchicalContextRunner.class)
+public class ReplenishingDemandTest {
+    @Rule
+    public final ExpectedException thrown = none();
+
+    private final List<Long> requests = new ArrayList<Long>();
+    private final ElementRequester upstream = new ElementRequester() {
+        @Override
+        public void request(long n) {
+            requests.add(n);
+        }
+    };
+    private final ReplenishingDemand demand = new ReplenishingDemand(upstream, 3);
+
+    @Test
+    public void forwards_the_demand_of_the_subscriber() {
+        demand.request(10);
+        assertThat(requests, contains(10L));
+        assertThat(demand.getOutstandingElements(), is(10L));
+    }
+
+    @Test
+    public void does_not_request_elements_for_emitted_elements() {
+        demand.request(10);
+        demand.received(true);
+        demand.received(true);
+        assertThat(requests, contains(10L));
+        assertThat(demand.getOutstandingElements(), is(8L));
+    }
+
+    @Test
+    public void requests_dropped_elements_in_batches() {
+        demand.request(10);
+        demand.received(false);
+        demand.received(false);
+        demand.received(true);
+        assertThat(requests, contains(10L));
+        demand.received(false);
+        assertThat(requests, contains(10L, 3L));
+        assertThat(demand.getOutstandingElements(), is(9L));
+    }
+
+    @Test
+    public void requests_an_incomplete_batch_if_all_requested_elements_have_been_received() {
+        demand.request(2);
+        demand.received(true);
+        demand.received(false);
+        assertThat(requests, contains(2L, 1L));
+        assertThat(demand.getOutstandingElements(), is(1L));
+    }
+
+    @Test
+    public void does_not_request_dropped_elements_if_the_demand_is_unbounded() {
+        demand.request(Long.MAX_VALUE);
+        demand.received(false);
+        demand.received(false);
+        demand.received(false);
+        assertThat(requests, contains(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void caps_the_demand_at_unbounded() {
+        demand.request(Long.MAX_VALUE - 1);
+        demand.request(2);
+        assertThat(demand.getOutstandingElements(), is(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void does_not_request_elements_from_upstream_reentrantly() {
+        final List<String> calls = new ArrayList<String>();
+        final ReplenishingDemand[] reentrantDemand = new ReplenishingDemand[1];
+        reentrantDemand[0] = new ReplenishingDemand(new ElementRequester() {
+            @Override
+            public void request(long n) {
+                calls.add("start " + n);
+                if (n == 10)
+                    reentrantDemand[0].request(5);
+                calls.add("end " + n);
+            }
+        }, 3);
+        reentrantDemand[0].request(10);
+        assertThat(calls, contains("start 10", "end 10", "start 5", "end 5"));
+    }
+
+    @Test
+    public void does_not_request_elements_from_upstream_concurrently()
+            throws Exception {
+        final AtomicInteger concurrentRequests = new AtomicInteger();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        final AtomicLong requestedElements = new AtomicLong();
+        final ReplenishingDemand concurrentDemand = new ReplenishingDemand(
+            new ElementRequester() {
+                @Override
+                public void request(long n) {
+                    if (concurrentRequests.incrementAndGet() != 1)
+                        overlapped.set(true);
+                    requestedElements.addAndGet(n);
+                    concurrentRequests.decrementAndGet();
+                }
+            }, 3);
+        Runnable requestElements = new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 10000; ++i)
+                    concurrentDemand.request(1);
+            }
+        };
+        Thread first = new Thread(requestElements);
+        Thread second = new Thread(requestElements);
+        first.start();
+        second.start();
+        first.join();
+        second.join();
+        assertThat(overlapped.get(), is(false));
+        assertThat(requestedElements.get(), is(20000L));
+    }
+
+    @Test
+    public void rejects_a_batch_size_that_is_not_positive() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("The batch size must be positive but is 0.");
+        new ReplenishingDemand(upstream, 0);
+    }
+}
@@ -0,0 +1,211 @@
+package com.github.stefanbirkner.fishbowl;
+
+import de.bechte.junit.runners.context.HierarchicalContextRunner;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.ignoreException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.rules.ExpectedException.none;
+
+@RunWith(HierarchicalContextRunner.class)
+public class ResourcePoolTest {
+    private static final IOException BROKEN = new IOException();
+    private static final IllegalArgumentException INVALID_INPUT
+        = new IllegalArgumentException();
+
+    @Rule
+    public final ExpectedException thrown = none();
+
+    private final List<Resource> createdResources = new ArrayList<Resource>();
+    private final ResourcePool<Resource> pool = new ResourcePool<Resource>(
+        new StatementWithReturnValue<Resource>() {
+            @Override
+            public Resource evaluate() throws Throwable {
+                Resource resource = new Resource();
+                createdResources.add(resource);
+                return resource;
+            }
+        },
+        IOException.class);
+
+    public class wrapCheckedException {
+        @Test
+        public void lends_a_resource_to_the_statement() {
+            Resource resource = pool.wrapCheckedException(IDENTITY);
+            assertThat(resource, is(sameInstance(createdResources.get(0))));
+        }
+
+        @Test
+        public void reuses_a_resource_that_has_been_returned() {
+            pool.wrapCheckedException(IDENTITY);
+            Resource resource = pool.wrapCheckedException(IDENTITY);
+            assertThat(resource, is(sameInstance(createdResources.get(0))));
+            assertThat(createdResources, hasSize(1));
+        }
+
+        @Test
+        public void evicts_a_resource_if_the_statement_throws_an_exception_of_the_eviction_type() {
+            ignoreException(statementThatUsesPoolAndThrows(BROKEN));
+            assertThat(pool.getNumberOfIdleResources(), is(0));
+            assertThat(createdResources.get(0).closed, is(true));
+        }
+
+        @Test
+        public void returns_a_resource_if_the_statement_throws_an_exception_of_a_different_type() {
+            ignoreException(statementThatUsesPoolAndThrows(INVALID_INPUT));
+            assertThat(pool.getNumberOfIdleResources(), is(1));
+            assertThat(createdResources.get(0).closed, is(false));
+        }
+
+        @Test
+        public void throws_a_WrappedException_whose_cause_is_the_checked_exception() {
+            thrown.expect(WrappedException.class);
+            thrown.expectCause(sameInstance(BROKEN));
+            pool.wrapCheckedException(statementThatThrows(BROKEN));
+        }
+
+        @Test
+        public void throws_the_RuntimeException_that_is_thrown_by_the_statement() {
+            thrown.expect(sameInstance(INVALID_INPUT));
+            pool.wrapCheckedException(statementThatThrows(INVALID_INPUT));
+        }
+    }
+
+    public class defaultIfException {
+        @Test
+        public void returns_the_value_of_the_statement() {
+            Resource resource = pool.defaultIfException(
+                IDENTITY, IOException.class, null);
+            assertThat(resource, is(sameInstance(createdResources.get(0))));
+        }
+
+        @Test
+        public void returns_the_default_value_and_evicts_the_resource() {
+            Resource defaultResource = new Resource();
+            Resource resource = pool.defaultIfException(
+                statementThatThrows(BROKEN), IOException.class, defaultResource);
+            assertThat(resource, is(sameInstance(defaultResource)));
+            assertThat(createdResources.get(0).closed, is(true));
+        }
+    }
+
+    public class maximum_size {
+        private final ResourcePool<Resource> limitedPool = pool.withMaximumSize(1);
+
+        @Test
+        public void rejects_a_statement_if_all_resources_are_lent() {
+            thrown.expect(ResourcePoolExhaustedException.class);
+            thrown.expectMessage("All 1 resources of the pool are lent.");
+            limitedPool.wrapCheckedException(
+                new StatementWithArgument<Resource, Resource>() {
+                    @Override
+                    public Resource evaluate(Resource resource) {
+                        return limitedPool.wrapCheckedException(IDENTITY);
+                    }
+                });
+        }
+
+        @Test
+        public void reuses_a_resource_that_has_been_returned() {
+            limitedPool.wrapCheckedException(IDENTITY);
+            limitedPool.wrapCheckedException(IDENTITY);
+            assertThat(createdResources, hasSize(1));
+        }
+
+        @Test
+        public void does_not_count_evicted_resources() {
+            ignoreException(new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    limitedPool.wrapCheckedException(statementThatThrows(BROKEN));
+                }
+            });
+            limitedPool.wrapCheckedException(IDENTITY);
+            assertThat(createdResources, hasSize(2));
+            assertThat(limitedPool.getNumberOfResources(), is(1));
+        }
+
+        @Test
+        public void must_be_positive() {
+            thrown.expect(IllegalArgumentException.class);
+            thrown.expectMessage("The maximum size must be positive.");
+            pool.withMaximumSize(0);
+        }
+    }
+
+    public class close {
+        @Test
+        public void closes_idle_resources() {
+            pool.wrapCheckedException(IDENTITY);
+            pool.close();
+            assertThat(createdResources.get(0).closed, is(true));
+        }
+
+        @Test
+        public void closes_resources_that_are_returned_after_the_pool_has_been_closed() {
+            pool.wrapCheckedException(
+                new StatementWithArgument<Resource, Resource>() {
+                    @Override
+                    public Resource evaluate(Resource resource) {
+                        pool.close();
+                        return resource;
+                    }
+                });
+            assertThat(createdResources.get(0).closed, is(true));
+            assertThat(pool.getNumberOfIdleResources(), is(0));
+        }
+
+        @Test
+        public void prevents_lending_resources() {
+            pool.close();
+            thrown.expect(IllegalStateException.class);
+            thrown.expectMessage("The pool has been closed.");
+            pool.wrapCheckedException(IDENTITY);
+        }
+    }
+
+    private static final StatementWithArgument<Resource, Resource> IDENTITY
+        = new StatementWithArgument<Resource, Resource>() {
+            @Override
+            public Resource evaluate(Resource resource) {
+                return resource;
+            }
+        };
+
+    private static StatementWithArgument<Resource, Resource> statementThatThrows(
+            final Throwable exception) {
+        return new StatementWithArgument<Resource, Resource>() {
+            @Override
+            public Resource evaluate(Resource resource) throws Throwable {
+                throw exception;
+            }
+        };
+    }
+
+    private Statement statementThatUsesPoolAndThrows(final Throwable exception) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                pool.wrapCheckedException(statementThatThrows(exception));
+            }
+        };
+    }
+
+    private static class Resource implements Closeable {
+        boolean closed = false;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.stefanbirkner.fishbowl;
+
+import java.io.IOException;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.*;
+
+/**
+ * Measures the latency of the first and of subsequent calls of
+ * {@code Fishbowl}'s methods. The first call includes class loading and
+ * initialization. Run it on the JVM and as a native image (see the
+ * {@code native} profile) in order to compare both:
+ * <pre>
+ *   time java -cp target/classes:target/test-classes com.github.stefanbirkner.fishbowl.StartupBenchmark
+ *   time target/fishbowl-startup-benchmark
+ * </pre>
+ */
+public class StartupBenchmark {
+    private static final int WARM_CALLS = 100000;
+    private static final Statement THROW_CHECKED_EXCEPTION = new Statement() {
+        @Override
+        public void evaluate() throws Throwable {
+            throw new IOException();
+        }
+    };
+    private static final StatementWithReturnValue<String> RETURN_VALUE
+        = new StatementWithReturnValue<String>() {
+            @Override
+            public String evaluate() throws Throwable {
+                return "value";
+            }
+        };
+    private static final StatementWithReturnValue<String> THROW_AND_RETURN_VALUE
+        = new StatementWithReturnValue<String>() {
+            @Override
+            public String evaluate() throws Throwable {
+                throw new IOException();
+            }
+        };
+
+    public static void main(String... args) {
+        measure("wrapCheckedException", new Runnable() {
+            @Override
+            public void run() {
+                wrapCheckedException(RETURN_VALUE);
+            }
+        });
+        measure("defaultIfException", new Runnable() {
+            @Override
+            public void run() {
+                defaultIfException(
+                    THROW_AND_RETURN_VALUE, IOException.class, "default");
+            }
+        });
+        measure("ignoreException", new Runnable() {
+            @Override
+            public void run() {
+                ignoreException(THROW_CHECKED_EXCEPTION, IOException.class);
+            }
+        });
+        measure("exceptionThrownBy", new Runnable() {
+            @Override
+            public void run() {
+                exceptionThrownBy(THROW_CHECKED_EXCEPTION, IOException.class);
+            }
+        });
+    }
+
+    private static void measure(String name, Runnable call) {
+        long start = System.nanoTime();
+        call.run();
+        long firstCall = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < WARM_CALLS; ++i)
+            call.run();
+        long warmCall = (System.nanoTime() - start) / WARM_CALLS;
+        System.out.println(name + ": first call " + firstCall
+            + " ns, subsequent calls " + warmCall + " ns");
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.stefanbirkner.fishbowl;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.FutureTask;
+
+import static com.github.stefanbirkner.fishbowl.Fishbowl.exceptionThrownBy;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+
+/**
+ * Test the Javadoc code for
+ * {@link Fishbowl#exceptionThrownBy(java.util.concurrent.Future, Class, long, java.util.concurrent.TimeUnit)}.
+ */
+public class ExceptionThrownByCompletableFutureTest {
+    @Test
+    public void exposesExceptionOfCompletableFuture() {
+        IllegalStateException exception = exceptionThrownBy(
+                supplyAsync(() -> { throw new IllegalStateException("foo"); }),
+                IllegalStateException.class, 5, SECONDS);
+        assertThat(exception, hasProperty("message", equalTo("foo")));
+    }
+
+    @Test
+    public void exposesExceptionOfPreviousStage() {
+        CompletableFuture<String> stage = new CompletableFuture<>();
+        stage.completeExceptionally(new FooException(3));
+        FooException exception = exceptionThrownBy(
+                stage.thenApply(String::trim).toCompletableFuture(),
+                FooException.class, 5, SECONDS);
+        assertThat(exception, hasProperty("value", equalTo(3)));
+    }
+
+    @Test
+    public void exposesCauseOfCompletionExceptionOfOtherFuture() {
+        FutureTask<String> future = new FutureTask<>(() -> {
+            throw new CompletionException(new FooException(4));
+        });
+        future.run();
+        FooException exception = exceptionThrownBy(
+                future, FooException.class, 5, SECONDS);
+        assertThat(exception, hasProperty("value", equalTo(4)));
+    }
+}
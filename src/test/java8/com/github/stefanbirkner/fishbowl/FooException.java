@@ -1,8 +1,11 @@
 package com.github.stefanbirkner.fishbowl;
 
 /**
- * Needed by {@link com.github.stefanbirkner.fishbowl.FishbowlJUnitReadmeTest#expectExceptionOfACertainType()}
- * and {@link com.github.stefanbirkner.fishbowl.FishbowlTestNgReadmeTest#expectExceptionOfACertainType()}
+ * Needed by
+ * {@link com.github.stefanbirkner.fishbowl.FishbowlJUnitReadmeTest#expectExceptionOfACertainType()},
+ * {@link com.github.stefanbirkner.fishbowl.FishbowlTestNgReadmeTest#expectExceptionOfACertainType()},
+ * {@link com.github.stefanbirkner.fishbowl.ExceptionThrownByCompletableFutureTest#exposesExceptionOfPreviousStage()}
+ * and {@link com.github.stefanbirkner.fishbowl.ExceptionThrownByCompletableFutureTest#exposesCauseOfCompletionExceptionOfOtherFuture()}
  */
 public class FooException extends Exception {
     private final int value;
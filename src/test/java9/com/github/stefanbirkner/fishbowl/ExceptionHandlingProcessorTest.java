@@ -0,0 +1,143 @@
+package com.github.stefanbirkner.fishbowl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static com.github.stefanbirkner.fishbowl.ElementMapper.ignoringException;
+import static com.github.stefanbirkner.fishbowl.ElementMapper.wrappingCheckedException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ExceptionHandlingProcessorTest {
+    private final RecordingSubscription upstream = new RecordingSubscription();
+    private final RecordingSubscriber downstream = new RecordingSubscriber();
+
+    @Test
+    public void emits_the_mapped_elements() {
+        ExceptionHandlingProcessor<String, Integer> processor
+            = connectedProcessor(ignoringException(
+                Integer::valueOf, NumberFormatException.class));
+        downstream.subscription.request(2);
+        processor.onNext("1");
+        processor.onNext("2");
+        assertThat(downstream.elements, contains(1, 2));
+        assertThat(upstream.requests, contains(2L));
+    }
+
+    @Test
+    public void requests_dropped_elements_in_batches() {
+        ExceptionHandlingProcessor<String, Integer> processor
+            = connectedProcessor(ignoringException(
+                Integer::valueOf, NumberFormatException.class));
+        downstream.subscription.request(10);
+        processor.onNext("a");
+        processor.onNext("b");
+        assertThat(upstream.requests, contains(10L));
+        processor.onNext("c");
+        assertThat(upstream.requests, contains(10L, 3L));
+    }
+
+    @Test
+    public void requests_dropped_elements_when_the_demand_is_exhausted() {
+        ExceptionHandlingProcessor<String, Integer> processor
+            = connectedProcessor(ignoringException(
+                Integer::valueOf, NumberFormatException.class));
+        downstream.subscription.request(2);
+        processor.onNext("1");
+        processor.onNext("a");
+        assertThat(upstream.requests, contains(2L, 1L));
+    }
+
+    @Test
+    public void cancels_upstream_and_signals_an_exception_that_is_not_handled() {
+        ExceptionHandlingProcessor<String, Integer> processor
+            = connectedProcessor(wrappingCheckedException(Integer::valueOf));
+        downstream.subscription.request(1);
+        processor.onNext("a");
+        assertThat(upstream.cancelled, is(true));
+        assertThat(downstream.error, is(instanceOf(NumberFormatException.class)));
+    }
+
+    @Test
+    public void signals_completion() {
+        ExceptionHandlingProcessor<String, Integer> processor
+            = connectedProcessor(wrappingCheckedException(Integer::valueOf));
+        processor.onComplete();
+        assertThat(downstream.completed, is(true));
+    }
+
+    @Test
+    public void signals_completion_of_upstream_that_completes_before_the_subscriber_subscribes() {
+        ExceptionHandlingProcessor<String, Integer> processor
+            = new ExceptionHandlingProcessor<>(
+                wrappingCheckedException(Integer::valueOf), 3);
+        processor.onSubscribe(upstream);
+        processor.onComplete();
+        processor.subscribe(downstream);
+        assertThat(downstream.completed, is(true));
+    }
+
+    @Test
+    public void rejects_a_second_subscriber() {
+        ExceptionHandlingProcessor<String, Integer> processor
+            = connectedProcessor(wrappingCheckedException(Integer::valueOf));
+        RecordingSubscriber secondSubscriber = new RecordingSubscriber();
+        processor.subscribe(secondSubscriber);
+        assertThat(secondSubscriber.error,
+            is(instanceOf(IllegalStateException.class)));
+    }
+
+    private ExceptionHandlingProcessor<String, Integer> connectedProcessor(
+            ElementMapper<String, Integer> mapper) {
+        ExceptionHandlingProcessor<String, Integer> processor
+            = new ExceptionHandlingProcessor<>(mapper, 3);
+        processor.subscribe(downstream);
+        processor.onSubscribe(upstream);
+        return processor;
+    }
+
+    private static class RecordingSubscription implements Flow.Subscription {
+        final List<Long> requests = new ArrayList<>();
+        boolean cancelled = false;
+
+        @Override
+        public void request(long n) {
+            requests.add(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<Integer> {
+        final List<Integer> elements = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed = false;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            elements.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}